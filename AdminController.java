@@ -4,65 +4,127 @@ import com.sara.entity.Request;
 import com.sara.entity.Resource;
 import com.sara.entity.User;
 import com.sara.entity.VolunteerAssignment;
+import com.sara.service.AllocationService;
+import com.sara.service.BrowseCacheService;
+import com.sara.service.BulkExportService;
+import com.sara.service.BulkFormat;
+import com.sara.service.BulkImportService;
+import com.sara.service.CursorPage;
+import com.sara.service.DashboardStats;
+import com.sara.service.DashboardStatsService;
+import com.sara.service.EntityCacheService;
+import com.sara.service.ImportReport;
+import com.sara.service.CacheStats;
 import com.sara.service.RequestService;
 import com.sara.service.ResourceService;
 import com.sara.service.UserService;
+import com.sara.service.UserSummaryService;
 import com.sara.service.VolunteerService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Controller
 @RequestMapping("/admin")
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
     
+    private static final int ALLOCATION_LINES_SHOWN = 200;
+    
     private final UserService userService;
     private final ResourceService resourceService;
     private final RequestService requestService;
     private final VolunteerService volunteerService;
+    private final DashboardStatsService dashboardStatsService;
+    private final AllocationService allocationService;
+    private final BrowseCacheService browseCacheService;
+    private final EntityCacheService entityCacheService;
+    private final UserSummaryService userSummaryService;
+    private final PageComposer pageComposer;
+    private final BulkImportService bulkImportService;
+    private final BulkExportService bulkExportService;
     
     public AdminController(UserService userService, ResourceService resourceService, 
-                          RequestService requestService, VolunteerService volunteerService) {
+                          RequestService requestService, VolunteerService volunteerService,
+                          DashboardStatsService dashboardStatsService, AllocationService allocationService,
+                          BrowseCacheService browseCacheService, EntityCacheService entityCacheService,
+                          UserSummaryService userSummaryService, PageComposer pageComposer, BulkImportService bulkImportService,
+                          BulkExportService bulkExportService) {
         this.userService = userService;
         this.resourceService = resourceService;
         this.requestService = requestService;
         this.volunteerService = volunteerService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.allocationService = allocationService;
+        this.browseCacheService = browseCacheService;
+        this.entityCacheService = entityCacheService;
+        this.userSummaryService = userSummaryService;
+        this.pageComposer = pageComposer;
+        this.bulkImportService = bulkImportService;
+        this.bulkExportService = bulkExportService;
     }
     
     @GetMapping("/dashboard")
     public String dashboard(Model model, Principal principal) {
-        model.addAttribute("totalUsers", userService.getTotalUsersCount());
-        model.addAttribute("totalDonors", userService.getUsersCountByRole(User.UserRole.DONOR));
-        model.addAttribute("totalVolunteers", userService.getUsersCountByRole(User.UserRole.VOLUNTEER));
-        model.addAttribute("totalVictims", userService.getUsersCountByRole(User.UserRole.VICTIM));
-        
-        model.addAttribute("totalResources", resourceService.getTotalResourcesCount());
-        model.addAttribute("availableResources", resourceService.getAvailableResourcesCount());
-        model.addAttribute("verifiedResources", resourceService.findVerifiedResources().size());
+        pageComposer.compose(model)
+            .add("stats", dashboardStatsService::getStats, DashboardStats.empty(), stats -> addStats(model, stats))
+            // Recent activity
+            .add("recentResources", () -> resourceService.findResourcesPage(null, null, null, 5).getItems(), List.of())
+            .add("recentRequests", () -> requestService.findRequestsPage(null, null, null, 5).getItems(), List.of())
+            .fetch();
         
-        model.addAttribute("totalRequests", requestService.getTotalRequestsCount());
-        model.addAttribute("openRequests", requestService.getOpenRequestsCount());
-        model.addAttribute("fulfilledRequests", requestService.getFulfilledRequestsCount());
+        return "admin/dashboard";
+    }
+    
+    private static void addStats(Model model, DashboardStats stats) {
+        model.addAttribute("totalUsers", stats.getTotalUsers());
+        model.addAttribute("totalDonors", stats.getUsersCount(User.UserRole.DONOR));
+        model.addAttribute("totalVolunteers", stats.getUsersCount(User.UserRole.VOLUNTEER));
+        model.addAttribute("totalVictims", stats.getUsersCount(User.UserRole.VICTIM));
         
-        model.addAttribute("totalAssignments", volunteerService.getTotalAssignmentsCount());
-        model.addAttribute("completedAssignments", volunteerService.getCompletedAssignmentsCount());
+        model.addAttribute("totalResources", stats.getTotalResources());
+        model.addAttribute("availableResources", stats.getResourcesCount(Resource.ResourceStatus.AVAILABLE));
+        model.addAttribute("verifiedResources", stats.getVerifiedResources());
         
-        // Recent activity
-        model.addAttribute("recentResources", resourceService.findAllResources().stream().limit(5).toList());
-        model.addAttribute("recentRequests", requestService.findAllRequests().stream().limit(5).toList());
+        model.addAttribute("totalRequests", stats.getTotalRequests());
+        model.addAttribute("openRequests", stats.getRequestsCount(Request.RequestStatus.OPEN));
+        model.addAttribute("fulfilledRequests", stats.getRequestsCount(Request.RequestStatus.FULFILLED));
         
-        return "admin/dashboard";
+        model.addAttribute("totalAssignments", stats.getTotalAssignments());
+        model.addAttribute("completedAssignments", stats.getAssignmentsCount(VolunteerAssignment.AssignmentStatus.COMPLETED));
+    }
+    
+    @GetMapping(path = "/cache-stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<CacheStats> cacheStats() {
+        List<CacheStats> stats = new ArrayList<>(browseCacheService.getStats());
+        stats.addAll(entityCacheService.getStats());
+        stats.addAll(userSummaryService.getStats());
+        return stats;
     }
     
     @GetMapping("/users")
-    public String users(Model model, @RequestParam(required = false) User.UserRole role) {
-        var users = (role != null) ? userService.findByRole(role) : userService.findAllUsers();
+    public String users(Model model, @RequestParam(required = false) User.UserRole role,
+                        @RequestParam(required = false) String cursor) {
+        var users = userService.findUsersPage(role, cursor, CursorPage.DEFAULT_SIZE);
         
-        model.addAttribute("users", users);
+        Pagination.addPage(model, "users", users, cursor);
         model.addAttribute("userRoles", User.UserRole.values());
         model.addAttribute("selectedRole", role);
         
@@ -86,17 +148,11 @@ public class AdminController {
     @GetMapping("/resources")
     public String resources(Model model, 
                            @RequestParam(required = false) Resource.ResourceType type,
-                           @RequestParam(required = false) Resource.ResourceStatus status) {
-        var resources = resourceService.findAllResources();
-        
-        if (type != null) {
-            resources = resources.stream().filter(r -> r.getType() == type).toList();
-        }
-        if (status != null) {
-            resources = resources.stream().filter(r -> r.getStatus() == status).toList();
-        }
+                           @RequestParam(required = false) Resource.ResourceStatus status,
+                           @RequestParam(required = false) String cursor) {
+        var resources = resourceService.findResourcesPage(type, status, cursor, CursorPage.DEFAULT_SIZE);
         
-        model.addAttribute("resources", resources);
+        Pagination.addPage(model, "resources", resources, cursor);
         model.addAttribute("resourceTypes", Resource.ResourceType.values());
         model.addAttribute("resourceStatuses", Resource.ResourceStatus.values());
         model.addAttribute("selectedType", type);
@@ -128,20 +184,47 @@ public class AdminController {
         return "redirect:/admin/resources";
     }
     
+    @PostMapping("/resources/bulk-verify")
+    public String verifyResources(@RequestParam(required = false) List<Long> ids, RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Select the resources to verify.");
+        } else {
+            int changed = resourceService.verifyResources(ids);
+            redirectAttributes.addFlashAttribute("success", changed + " resources verified.");
+        }
+        return "redirect:/admin/data";
+    }
+    
+    /**
+     * Applies one status to the listed ids, or when none are given to every resource in
+     * status {@code current} (optionally of one type).
+     */
+    @PostMapping("/resources/bulk-status")
+    public String updateResourceStatuses(@RequestParam(required = false) List<Long> ids,
+                                         @RequestParam(required = false) Resource.ResourceStatus current,
+                                         @RequestParam(required = false) Resource.ResourceType type,
+                                         @RequestParam Resource.ResourceStatus status,
+                                         RedirectAttributes redirectAttributes) {
+        if (ids != null && !ids.isEmpty()) {
+            int changed = resourceService.updateResourceStatuses(ids, status);
+            redirectAttributes.addFlashAttribute("success", changed + " resources set to " + status + ".");
+        } else if (current != null) {
+            int changed = resourceService.updateResourceStatuses(current, type, status);
+            redirectAttributes.addFlashAttribute("success", changed + " resources set to " + status + ".");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "Give the resource ids or their current status.");
+        }
+        return "redirect:/admin/data";
+    }
+    
     @GetMapping("/requests")
     public String requests(Model model, 
                           @RequestParam(required = false) Request.RequestStatus status,
-                          @RequestParam(required = false) Request.UrgencyLevel urgency) {
-        var requests = requestService.findAllRequests();
+                          @RequestParam(required = false) Request.UrgencyLevel urgency,
+                          @RequestParam(required = false) String cursor) {
+        var requests = requestService.findRequestsPage(status, urgency, cursor, CursorPage.DEFAULT_SIZE);
         
-        if (status != null) {
-            requests = requests.stream().filter(r -> r.getStatus() == status).toList();
-        }
-        if (urgency != null) {
-            requests = requests.stream().filter(r -> r.getUrgency() == urgency).toList();
-        }
-        
-        model.addAttribute("requests", requests);
+        Pagination.addPage(model, "requests", requests, cursor);
         model.addAttribute("requestStatuses", Request.RequestStatus.values());
         model.addAttribute("urgencyLevels", Request.UrgencyLevel.values());
         model.addAttribute("selectedStatus", status);
@@ -166,14 +249,37 @@ public class AdminController {
         return "redirect:/admin/requests";
     }
     
+    /**
+     * Applies one status to the listed ids, or when none are given to every request in
+     * status {@code current} (optionally of one urgency).
+     */
+    @PostMapping("/requests/bulk-status")
+    public String updateRequestStatuses(@RequestParam(required = false) List<Long> ids,
+                                        @RequestParam(required = false) Request.RequestStatus current,
+                                        @RequestParam(required = false) Request.UrgencyLevel urgency,
+                                        @RequestParam Request.RequestStatus status,
+                                        RedirectAttributes redirectAttributes) {
+        if (ids != null && !ids.isEmpty()) {
+            int changed = requestService.updateRequestStatuses(ids, status);
+            redirectAttributes.addFlashAttribute("success", changed + " requests set to " + status + ".");
+        } else if (current != null) {
+            int changed = requestService.updateRequestStatuses(current, urgency, status);
+            redirectAttributes.addFlashAttribute("success", changed + " requests set to " + status + ".");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "Give the request ids or their current status.");
+        }
+        return "redirect:/admin/data";
+    }
+    
     @GetMapping("/assignments")
     public String assignments(Model model, 
-                             @RequestParam(required = false) VolunteerAssignment.AssignmentStatus status) {
-        var assignments = (status != null) 
-            ? volunteerService.findByStatus(status)
-            : volunteerService.findByStatus(VolunteerAssignment.AssignmentStatus.ASSIGNED); // Default to assigned
+                             @RequestParam(required = false) VolunteerAssignment.AssignmentStatus status,
+                             @RequestParam(required = false) String cursor) {
+        var assignments = volunteerService.findAssignmentsPage(
+            (status != null) ? status : VolunteerAssignment.AssignmentStatus.ASSIGNED, // Default to assigned
+            cursor, CursorPage.DEFAULT_SIZE);
         
-        model.addAttribute("assignments", assignments);
+        Pagination.addPage(model, "assignments", assignments, cursor);
         model.addAttribute("assignmentStatuses", VolunteerAssignment.AssignmentStatus.values());
         model.addAttribute("selectedStatus", status);
         
@@ -184,15 +290,127 @@ public class AdminController {
     public String updateAssignmentStatus(@PathVariable Long id, 
                                         @RequestParam VolunteerAssignment.AssignmentStatus status,
                                         RedirectAttributes redirectAttributes) {
-        volunteerService.updateAssignmentStatus(id, status);
-        redirectAttributes.addFlashAttribute("success", "Assignment status updated successfully!");
+        try {
+            volunteerService.updateAssignmentStatus(id, status);
+            redirectAttributes.addFlashAttribute("success", "Assignment status updated successfully!");
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
         return "redirect:/admin/assignments";
     }
     
+    @PostMapping("/assignments/bulk-status")
+    public String updateAssignmentStatuses(@RequestParam(required = false) List<Long> ids,
+                                           @RequestParam VolunteerAssignment.AssignmentStatus status,
+                                           RedirectAttributes redirectAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Give the assignment ids to update.");
+            return "redirect:/admin/data";
+        }
+        try {
+            int changed = volunteerService.updateAssignmentStatuses(ids, status);
+            redirectAttributes.addFlashAttribute("success", changed + " assignments set to " + status + ".");
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/admin/data";
+    }
+    
     @PostMapping("/assignments/{id}/delete")
     public String deleteAssignment(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         volunteerService.deleteAssignment(id);
         redirectAttributes.addFlashAttribute("success", "Assignment deleted successfully!");
         return "redirect:/admin/assignments";
     }
+    
+    @GetMapping("/allocation")
+    public String allocation(Model model) {
+        var plan = allocationService.getLatestPlan();
+        
+        model.addAttribute("plan", plan.orElse(null));
+        model.addAttribute("allocations", plan.map(p -> allocationService.describe(p, ALLOCATION_LINES_SHOWN)).orElse(null));
+        model.addAttribute("urgencyLevels", Request.UrgencyLevel.values());
+        
+        return "admin/allocation";
+    }
+    
+    @PostMapping("/allocation")
+    public String planAllocation(RedirectAttributes redirectAttributes) {
+        var plan = allocationService.plan();
+        redirectAttributes.addFlashAttribute("success", "Allocation plan computed: " + plan.getQuantityAllocated()
+            + " of " + plan.getQuantityRequested() + " units allocated in " + plan.getSolveMillis() + " ms.");
+        return "redirect:/admin/allocation";
+    }
+    
+    @GetMapping("/data")
+    public String bulkData(Model model) {
+        model.addAttribute("requestStatuses", Request.RequestStatus.values());
+        model.addAttribute("urgencyLevels", Request.UrgencyLevel.values());
+        model.addAttribute("resourceTypes", Resource.ResourceType.values());
+        model.addAttribute("resourceStatuses", Resource.ResourceStatus.values());
+        model.addAttribute("assignmentStatuses", VolunteerAssignment.AssignmentStatus.values());
+        model.addAttribute("formats", BulkFormat.values());
+        
+        return "admin/bulk-data";
+    }
+    
+    @PostMapping("/data/import")
+    public String importData(@RequestParam String entity, @RequestParam MultipartFile file, Model model) {
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Choose a file to import.");
+            return bulkData(model);
+        }
+        BulkFormat format = BulkFormat.forFilename(file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            ImportReport report = "resources".equals(entity)
+                ? bulkImportService.importResources(in, format)
+                : bulkImportService.importRequests(in, format);
+            model.addAttribute("report", report);
+            model.addAttribute(report.getFailed() == 0 ? "success" : "warning", "Imported " + report.getImported()
+                + " of " + report.getRowsRead() + " rows in " + report.getElapsedMillis() + " ms.");
+        } catch (IOException e) {
+            model.addAttribute("error", "Could not read the file: " + e.getMessage());
+        }
+        return bulkData(model);
+    }
+    
+    @GetMapping("/data/requests/export")
+    public void exportRequests(@RequestParam(required = false) Request.RequestStatus status,
+                               @RequestParam(required = false) Request.UrgencyLevel urgency,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                               @RequestParam(defaultValue = "NDJSON") BulkFormat format,
+                               HttpServletResponse response) throws IOException {
+        startDownload(response, "requests", format);
+        bulkExportService.exportRequests(status, urgency, from, to, format, response.getOutputStream());
+    }
+    
+    @GetMapping("/data/resources/export")
+    public void exportResources(@RequestParam(required = false) Resource.ResourceType type,
+                                @RequestParam(required = false) Resource.ResourceStatus status,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                @RequestParam(defaultValue = "NDJSON") BulkFormat format,
+                                HttpServletResponse response) throws IOException {
+        startDownload(response, "resources", format);
+        bulkExportService.exportResources(type, status, from, to, format, response.getOutputStream());
+    }
+    
+    @GetMapping("/data/assignments/export")
+    public void exportAssignments(@RequestParam(required = false) VolunteerAssignment.AssignmentStatus status,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                  @RequestParam(defaultValue = "NDJSON") BulkFormat format,
+                                  HttpServletResponse response) throws IOException {
+        startDownload(response, "assignments", format);
+        bulkExportService.exportAssignments(status, from, to, format, response.getOutputStream());
+    }
+    
+    // Exports are written straight to the response on the request thread; an async body would hit the async timeout
+    private static void startDownload(HttpServletResponse response, String name, BulkFormat format) {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(name + "-" + LocalDate.now() + "." + format.getExtension()).build().toString());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class AllocationPlan {
+    
+    public record Line(Long requestId, Long resourceId, long quantity, Double distanceKm, Request.UrgencyLevel urgency) {}
+    
+    private final List<Line> lines;
+    private final Map<Request.UrgencyLevel, Long> requestedByUrgency;
+    private final Map<Request.UrgencyLevel, Long> allocatedByUrgency;
+    private final int requestCount;
+    private final LocalDateTime generatedAt;
+    private final long solveMillis;
+    
+    AllocationPlan(List<Line> lines,
+                   Map<Request.UrgencyLevel, Long> requestedByUrgency,
+                   Map<Request.UrgencyLevel, Long> allocatedByUrgency,
+                   int requestCount, LocalDateTime generatedAt, long solveMillis) {
+        this.lines = lines;
+        this.requestedByUrgency = requestedByUrgency;
+        this.allocatedByUrgency = allocatedByUrgency;
+        this.requestCount = requestCount;
+        this.generatedAt = generatedAt;
+        this.solveMillis = solveMillis;
+    }
+    
+    public List<Line> getLines() {
+        return lines;
+    }
+    
+    public int getRequestCount() {
+        return requestCount;
+    }
+    
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+    
+    public long getSolveMillis() {
+        return solveMillis;
+    }
+    
+    public long getQuantityRequested() {
+        return sum(requestedByUrgency);
+    }
+    
+    public long getQuantityAllocated() {
+        return sum(allocatedByUrgency);
+    }
+    
+    public long getRequested(Request.UrgencyLevel urgency) {
+        return requestedByUrgency.getOrDefault(urgency, 0L);
+    }
+    
+    public long getAllocated(Request.UrgencyLevel urgency) {
+        return allocatedByUrgency.getOrDefault(urgency, 0L);
+    }
+    
+    private static long sum(Map<?, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
\ No newline at end of file
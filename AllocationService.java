@@ -0,0 +1,176 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ResourceRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Plans how the available stock should be split over all OPEN requests at once, as a
+ * min-cost flow: stock flows from each resource, capped by its quantity, to the
+ * requests of the same type nearby, capped by their need. A unit shipped costs its
+ * distance minus the weight of the request's urgency, so the cheapest flow serves the
+ * most urgent needs first and then prefers short trips. Unlike per-request matching
+ * this never hands the nearest stock to one request when a more urgent one has no
+ * other option. Each resource type is an independent network.
+ */
+@Service
+public class AllocationService {
+    
+    // In kilometres per unit; every weight exceeds the matching radius so any feasible unit is worth shipping
+    private static final Map<Request.UrgencyLevel, Long> URGENCY_WEIGHTS = new EnumMap<>(Map.of(
+        Request.UrgencyLevel.LOW, 300L,
+        Request.UrgencyLevel.MEDIUM, 600L,
+        Request.UrgencyLevel.HIGH, 1200L,
+        Request.UrgencyLevel.CRITICAL, 2400L
+    ));
+    
+    // Regional stock without coordinates is costed as if it were this far away
+    private static final long UNKNOWN_DISTANCE_KM = 50;
+    private static final int CANDIDATES_PER_REQUEST = 10;
+    
+    private static final int SOURCE = 0;
+    private static final int SINK = 1;
+    
+    private final RequestRepository requestRepository;
+    private final ResourceRepository resourceRepository;
+    private final MatchingService matchingService;
+    
+    private volatile AllocationPlan latestPlan;
+    
+    private record Arc(int edge, MatchingService.Need need, MatchingService.Candidate candidate) {}
+    
+    public AllocationService(RequestRepository requestRepository, ResourceRepository resourceRepository,
+                             MatchingService matchingService) {
+        this.requestRepository = requestRepository;
+        this.resourceRepository = resourceRepository;
+        this.matchingService = matchingService;
+    }
+    
+    @Scheduled(fixedDelayString = "${sara.allocation.plan-interval-ms:900000}",
+               initialDelayString = "${sara.allocation.plan-interval-ms:900000}")
+    @Transactional(readOnly = true)
+    public AllocationPlan plan() {
+        long started = System.currentTimeMillis();
+        Map<Resource.ResourceType, List<MatchingService.Need>> needsByType = requestRepository.findOpenMatchKeys().stream()
+            .map(MatchingService::needOf)
+            .filter(n -> n.type() != null && n.quantity() > 0)
+            .collect(Collectors.groupingBy(MatchingService.Need::type));
+        
+        List<AllocationPlan.Line> lines = needsByType.values().parallelStream()
+            .flatMap(needs -> solve(needs).stream())
+            .sorted(Comparator.comparing((AllocationPlan.Line l) -> l.urgency() != null ? l.urgency().ordinal() : -1).reversed()
+                .thenComparing(AllocationPlan.Line::requestId)
+                .thenComparing(AllocationPlan.Line::resourceId))
+            .toList();
+        
+        Map<Request.UrgencyLevel, Long> requested = new EnumMap<>(Request.UrgencyLevel.class);
+        Map<Request.UrgencyLevel, Long> allocated = new EnumMap<>(Request.UrgencyLevel.class);
+        int requestCount = 0;
+        for (List<MatchingService.Need> needs : needsByType.values()) {
+            for (MatchingService.Need need : needs) {
+                requestCount++;
+                if (need.urgency() != null) {
+                    requested.merge(need.urgency(), (long) need.quantity(), Long::sum);
+                }
+            }
+        }
+        for (AllocationPlan.Line line : lines) {
+            if (line.urgency() != null) {
+                allocated.merge(line.urgency(), line.quantity(), Long::sum);
+            }
+        }
+        
+        AllocationPlan plan = new AllocationPlan(lines, requested, allocated, requestCount,
+            LocalDateTime.now(), System.currentTimeMillis() - started);
+        latestPlan = plan;
+        return plan;
+    }
+    
+    public Optional<AllocationPlan> getLatestPlan() {
+        return Optional.ofNullable(latestPlan);
+    }
+    
+    /**
+     * The first {@code limit} lines of the plan with their request and resource loaded,
+     * for display. Lines whose request or resource has since been deleted are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<PlannedAllocation> describe(AllocationPlan plan, int limit) {
+        List<AllocationPlan.Line> lines = plan.getLines().stream().limit(limit).toList();
+        Map<Long, Request> requests = requestRepository.findAllById(
+                lines.stream().map(AllocationPlan.Line::requestId).distinct().toList()).stream()
+            .collect(Collectors.toMap(Request::getId, Function.identity()));
+        Map<Long, Resource> resources = resourceRepository.findAllById(
+                lines.stream().map(AllocationPlan.Line::resourceId).distinct().toList()).stream()
+            .collect(Collectors.toMap(Resource::getId, Function.identity()));
+        
+        return lines.stream()
+            .filter(l -> requests.containsKey(l.requestId()) && resources.containsKey(l.resourceId()))
+            .map(l -> new PlannedAllocation(requests.get(l.requestId()), resources.get(l.resourceId()),
+                l.quantity(), l.distanceKm()))
+            .toList();
+    }
+    
+    private List<AllocationPlan.Line> solve(List<MatchingService.Need> needs) {
+        List<List<MatchingService.Candidate>> candidates = new ArrayList<>(needs.size());
+        for (MatchingService.Need need : needs) {
+            candidates.add(matchingService.match(need, MatchingService.BY_DISTANCE, CANDIDATES_PER_REQUEST));
+        }
+        
+        // Only resources that are a candidate for some request take part
+        Map<Long, Integer> resourceNodes = new HashMap<>();
+        for (List<MatchingService.Candidate> forNeed : candidates) {
+            for (MatchingService.Candidate candidate : forNeed) {
+                if (!resourceNodes.containsKey(candidate.resourceId())) {
+                    resourceNodes.put(candidate.resourceId(), 2 + resourceNodes.size());
+                }
+            }
+        }
+        int firstRequestNode = 2 + resourceNodes.size();
+        MinCostFlow network = new MinCostFlow(firstRequestNode + needs.size());
+        
+        for (Map.Entry<Long, Integer> resource : resourceNodes.entrySet()) {
+            MatchingService.Stock stock = matchingService.getStock(resource.getKey());
+            network.addEdge(SOURCE, resource.getValue(), stock != null ? stock.quantity() : 0, 0);
+        }
+        List<Arc> arcs = new ArrayList<>();
+        for (int i = 0; i < needs.size(); i++) {
+            MatchingService.Need need = needs.get(i);
+            int requestNode = firstRequestNode + i;
+            network.addEdge(requestNode, SINK, need.quantity(), 0);
+            long weight = URGENCY_WEIGHTS.getOrDefault(need.urgency(), URGENCY_WEIGHTS.get(Request.UrgencyLevel.LOW));
+            for (MatchingService.Candidate candidate : candidates.get(i)) {
+                long distance = candidate.distanceKm() != null
+                    ? (long) Math.ceil(candidate.distanceKm()) : UNKNOWN_DISTANCE_KM;
+                int edge = network.addEdge(resourceNodes.get(candidate.resourceId()), requestNode,
+                    need.quantity(), distance - weight);
+                arcs.add(new Arc(edge, need, candidate));
+            }
+        }
+        network.solve(SOURCE, SINK);
+        
+        List<AllocationPlan.Line> lines = new ArrayList<>();
+        for (Arc arc : arcs) {
+            long quantity = network.flow(arc.edge());
+            if (quantity > 0) {
+                lines.add(new AllocationPlan.Line(arc.need().id(), arc.candidate().resourceId(), quantity,
+                    arc.candidate().distanceKm(), arc.need().urgency()));
+            }
+        }
+        return lines;
+    }
+}
\ No newline at end of file
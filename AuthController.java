@@ -3,6 +3,7 @@ package com.sara.controller;
 import com.sara.entity.User;
 import com.sara.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -24,10 +25,14 @@ public class AuthController {
     @GetMapping("/login")
     public String loginForm(@RequestParam(value = "error", required = false) String error,
                            @RequestParam(value = "logout", required = false) String logout,
+                           @RequestParam(value = "busy", required = false) String busy,
                            Model model) {
         if (error != null) {
             model.addAttribute("error", "Invalid username or password!");
         }
+        if (busy != null) {
+            model.addAttribute("error", "Too many people are signing in right now. Please try again in a moment.");
+        }
         if (logout != null) {
             model.addAttribute("message", "You have been logged out successfully.");
         }
@@ -73,6 +78,10 @@ public class AuthController {
             redirectAttributes.addFlashAttribute("success", 
                 "Registration successful! Please login with your credentials.");
             return "redirect:/login";
+        } catch (AuthenticationServiceException e) {
+            model.addAttribute("error", "Too many people are registering right now. Please try again in a moment.");
+            model.addAttribute("userRoles", User.UserRole.values());
+            return "auth/register";
         } catch (Exception e) {
             model.addAttribute("error", "Registration failed. Please try again.");
             model.addAttribute("userRoles", User.UserRole.values());
@@ -0,0 +1,235 @@
+package com.sara.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache behind the entity, listing and dashboard caches. Entries are
+ * kept in least recently used order under one lock, and loaders run outside it. A load
+ * registers a stamp before it starts and only stores its value if the stamp is still
+ * there when it finishes; invalidating a key removes that key's stamp and
+ * {@link #invalidateIf} removes all of them, so a value read before a write committed
+ * can never outlive that write's invalidation. Null values are returned but not stored.
+ * <p>
+ * Entries expire {@code ttlMillis} after they were loaded, unless that is 0. A
+ * {@link #tinyLfu} cache also counts every lookup in a small count-min sketch; once it
+ * is full, a newly loaded value replaces the least recently used entry only if its key
+ * has been requested more often than the victim's, so a scan over cold keys cannot push
+ * out the few hot ones. The sketch halves all its counters every {@code 10 * maxSize}
+ * lookups, so popularity fades with time.
+ */
+class BoundedCache<K, V> {
+    
+    private record Entry<V>(V value, long loadedAt) {}
+    
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    // Null when every loaded value is admitted
+    private final FrequencySketch sketch;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Long> loading = new HashMap<>();
+    private long loads = 0;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    
+    private BoundedCache(String name, int maxSize, long ttlMillis, boolean admission) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.sketch = admission ? new FrequencySketch(maxSize) : null;
+    }
+    
+    /**
+     * A cache that evicts its least recently used entry to make room.
+     */
+    static <K, V> BoundedCache<K, V> lru(String name, int maxSize, long ttlMillis) {
+        return new BoundedCache<>(name, maxSize, ttlMillis, false);
+    }
+    
+    /**
+     * A cache that only makes room for keys asked for more often than the least recently
+     * used one.
+     */
+    static <K, V> BoundedCache<K, V> tinyLfu(String name, int maxSize, long ttlMillis) {
+        return new BoundedCache<>(name, maxSize, ttlMillis, true);
+    }
+    
+    /**
+     * The cached value for {@code key}, or the loader's.
+     */
+    V get(K key, Supplier<V> loader) {
+        long stamp;
+        lock.lock();
+        try {
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+            Entry<V> entry = entries.get(key);
+            if (entry != null && (ttlMillis <= 0 || System.currentTimeMillis() - entry.loadedAt() < ttlMillis)) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.increment();
+            stamp = ++loads;
+            loading.put(key, stamp);
+        } finally {
+            lock.unlock();
+        }
+        long loadedAt = System.currentTimeMillis();
+        V value = null;
+        try {
+            value = loader.get();
+            return value;
+        } finally {
+            lock.lock();
+            try {
+                if (loading.remove(key, stamp) && value != null) {
+                    store(key, new Entry<>(value, loadedAt));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    void invalidate(K key) {
+        lock.lock();
+        try {
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+            loading.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Drops every entry that {@code stale} holds for. Loads in flight cannot be tested
+     * before they finish, so none of them is stored.
+     */
+    void invalidateIf(BiPredicate<K, V> stale) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> entry = it.next();
+                if (stale.test(entry.getKey(), entry.getValue().value())) {
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+            loading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(name, entries.size(), maxSize, hits.sum(), misses.sum(),
+                evictions.sum(), rejections.sum(), invalidations.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void store(K key, Entry<V> entry) {
+        if (entries.size() < maxSize || entries.containsKey(key)) {
+            entries.put(key, entry);
+            return;
+        }
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        Map.Entry<K, Entry<V>> victim = eldest.next();
+        if (sketch == null || sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+            eldest.remove();
+            evictions.increment();
+            entries.put(key, entry);
+        } else {
+            rejections.increment();
+        }
+    }
+    
+    /**
+     * Count-min sketch of four rows of saturating counters (capped at 15). A key's
+     * frequency is the smallest of its four counters, which over-counts on collisions
+     * but never under-counts.
+     */
+    private static final class FrequencySketch {
+        
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x97cb3127, 0xc3a5c85c, 0x9ae16a3b, 0x2c1b3c6d};
+        
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+        
+        FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(16, maxSize * 4 - 1)) << 1;
+            this.rows = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = Math.max(10 * maxSize, 160);
+        }
+        
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < DEPTH; i++) {
+                int index = indexOf(hash, i);
+                if (rows[i][index] < MAX_COUNT) {
+                    rows[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                halve();
+            }
+        }
+        
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int min = MAX_COUNT;
+            for (int i = 0; i < DEPTH; i++) {
+                min = Math.min(min, rows[i][indexOf(hash, i)]);
+            }
+            return min;
+        }
+        
+        private void halve() {
+            for (byte[] row : rows) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = (byte) (row[j] >> 1);
+                }
+            }
+            additions /= 2;
+        }
+        
+        private int indexOf(int hash, int row) {
+            int h = hash * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+        
+        private static int spread(int hash) {
+            int h = hash * 0x9e3779b9;
+            return h ^ (h >>> 15);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.sara.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt on a pool of its own, so a burst of logins or registrations takes at most
+ * {@code sara.password.hash-threads} cores and leaves the rest to every other request.
+ * Hashes wait in a queue of {@code sara.password.queue-capacity}; past that they are
+ * refused at once with an {@link AuthenticationServiceException}, which the
+ * login form shows as "busy" rather than as a wrong password.
+ * <p>
+ * The work factor is the highest one, between {@code min-strength} and
+ * {@code max-strength}, whose hash takes no longer than {@code hash-budget-ms} on this
+ * machine, measured at startup, unless {@code sara.password.strength} pins it. Stored
+ * hashes with a lower factor are reported by {@link #upgradeEncoding}, so they are
+ * hashed again at the current factor on the user's next login.
+ */
+class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+    
+    private static final String BUSY = "Password hashing is at capacity";
+    
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejectedCount = new AtomicLong();
+    
+    BoundedPasswordEncoder(Environment environment) {
+        int threads = environment.getProperty("sara.password.hash-threads", Integer.class,
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        int queueCapacity = environment.getProperty("sara.password.queue-capacity", Integer.class, 100);
+        int strength = environment.getProperty("sara.password.strength", Integer.class, 0);
+        if (strength <= 0) {
+            strength = calibrate(environment.getProperty("sara.password.min-strength", Integer.class, 10),
+                environment.getProperty("sara.password.max-strength", Integer.class, 16),
+                TimeUnit.MILLISECONDS.toNanos(environment.getProperty("sara.password.hash-budget-ms", Long.class, 100L)));
+        }
+        this.delegate = new BCryptPasswordEncoder(strength);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing: BCrypt strength {} on {} threads, {} queued at most", strength, threads, queueCapacity);
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+    
+    private <T> T run(Callable<T> hash) {
+        Future<T> result;
+        try {
+            result = executor.submit(hash);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new AuthenticationServiceException(BUSY, e);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException(BUSY, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    // Each step doubles the work, so the search stops before a step that would clearly overrun the budget
+    private static int calibrate(int minStrength, int maxStrength, long budgetNanos) {
+        String sample = "calibration";
+        new BCryptPasswordEncoder(minStrength).encode(sample);
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long started = System.nanoTime();
+            new BCryptPasswordEncoder(strength).encode(sample);
+            long took = System.nanoTime() - started;
+            log.info("BCrypt strength {} takes {} ms", strength, TimeUnit.NANOSECONDS.toMillis(took));
+            if (took > budgetNanos) {
+                break;
+            }
+            chosen = strength;
+            if (took * 2 > budgetNanos) {
+                break;
+            }
+        }
+        return chosen;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.event.EntityChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.List;
+
+/**
+ * Query result cache in front of the available resource and open request listings that
+ * the public and role browse pages share. Hits do not open a transaction or touch the
+ * database; misses fall through to {@link ResourceService} and {@link RequestService}.
+ * Free-text searches bypass the cache, their keys rarely repeat.
+ */
+@Service
+public class BrowseCacheService {
+    
+    private record ResourceQuery(Resource.ResourceType type, String location, String cursor, int size) {}
+    
+    private record RequestQuery(Request.UrgencyLevel urgency, String location, String cursor, int size) {}
+    
+    // Unpaged listings are stored as a single page without a next cursor
+    private static final int UNPAGED = 0;
+    
+    private final ResourceService resourceService;
+    private final RequestService requestService;
+    private final QueryResultCache<ResourceQuery, CursorPage<Resource>> resources;
+    private final QueryResultCache<RequestQuery, CursorPage<Request>> requests;
+    
+    public BrowseCacheService(ResourceService resourceService, RequestService requestService,
+                              @Value("${sara.browse-cache.max-entries:1000}") int maxEntries) {
+        this.resourceService = resourceService;
+        this.requestService = requestService;
+        this.resources = new QueryResultCache<>("resources", maxEntries,
+            page -> page.getItems().stream().map(Resource::getId).toList());
+        this.requests = new QueryResultCache<>("requests", maxEntries,
+            page -> page.getItems().stream().map(Request::getId).toList());
+    }
+    
+    public List<Resource> findAvailableResources() {
+        return findFilteredResources(null, null);
+    }
+    
+    public List<Resource> findFilteredResources(Resource.ResourceType type, String location) {
+        String where = blankToNull(location);
+        return resources.get(new ResourceQuery(type, where, null, UNPAGED),
+            () -> new CursorPage<>(resourceService.findFilteredResources(type, where), null)).getItems();
+    }
+    
+    public CursorPage<Resource> findAvailableResourcesPage(Resource.ResourceType type, String cursor, int size) {
+        return resources.get(new ResourceQuery(type, null, cursor, size),
+            () -> resourceService.findAvailableResourcesPage(type, cursor, size));
+    }
+    
+    public List<Resource> searchResources(String query, Resource.ResourceType type, String location) {
+        if (query == null || query.isBlank()) {
+            return findFilteredResources(type, location);
+        }
+        return resourceService.searchResources(query, type, location);
+    }
+    
+    public List<Request> findOpenRequests() {
+        return findFilteredRequests(null, null);
+    }
+    
+    public List<Request> findFilteredRequests(Request.UrgencyLevel urgency, String location) {
+        String where = blankToNull(location);
+        return requests.get(new RequestQuery(urgency, where, null, UNPAGED),
+            () -> new CursorPage<>(requestService.findFilteredRequests(urgency, where), null)).getItems();
+    }
+    
+    public CursorPage<Request> findOpenRequestsPage(Request.UrgencyLevel urgency, String cursor, int size) {
+        return requests.get(new RequestQuery(urgency, null, cursor, size),
+            () -> requestService.findOpenRequestsPage(urgency, cursor, size));
+    }
+    
+    public List<Request> searchRequests(String query, Request.UrgencyLevel urgency, String location) {
+        if (query == null || query.isBlank()) {
+            return findFilteredRequests(urgency, location);
+        }
+        return requestService.searchRequests(query, urgency, location);
+    }
+    
+    public List<CacheStats> getStats() {
+        return List.of(resources.stats(), requests.stats());
+    }
+    
+    /**
+     * Runs after completion rather than after commit so the search, spatial and priority
+     * indexes some misses read from have already applied the same change. A rolled back
+     * transaction only costs a few extra misses.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntity() instanceof Resource resource) {
+            boolean listed = !event.isDeleted()
+                && resource.getStatus() == Resource.ResourceStatus.AVAILABLE && resource.isVerified();
+            // A location filter is not re-evaluated here; any listing of the type is dropped
+            resources.invalidate(resource.getId(),
+                q -> listed && (q.type() == null || q.type() == resource.getType()));
+        } else if (event.getEntity() instanceof Request request) {
+            boolean listed = !event.isDeleted() && request.getStatus() == Request.RequestStatus.OPEN;
+            requests.invalidate(request.getId(),
+                q -> listed && (q.urgency() == null || q.urgency() == request.getUrgency()));
+        }
+    }
+    
+    private static String blankToNull(String value) {
+        return (value == null || value.isBlank()) ? null : value;
+    }
+}
\ No newline at end of file
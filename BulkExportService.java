@@ -0,0 +1,104 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.entity.VolunteerAssignment;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ResourceRepository;
+import com.sara.repository.VolunteerAssignmentRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Full data dumps as NDJSON or CSV. Rows are read through a forward-only cursor and
+ * written to the output as they arrive; the persistence context is cleared every
+ * {@value #CLEAR_EVERY} rows, so memory stays constant whatever the size of the table.
+ * Requests and resources can be limited to a range of {@code updatedAt}, assignments to
+ * a range of {@code assignedAt}; both bounds are optional, {@code from} inclusive and
+ * {@code to} exclusive.
+ * <p>
+ * Titles, descriptions, locations and contact details come from victims and donors, so
+ * CSV text that a spreadsheet would run as a formula is written with a leading
+ * {@code '} (see {@link BulkFormat}); an import of the file takes it off again.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BulkExportService {
+    
+    // Matches the fetch size of the export queries
+    private static final int CLEAR_EVERY = 500;
+    
+    private static final List<String> REQUEST_COLUMNS = List.of("id", "title", "description", "resourceType",
+        "quantityNeeded", "location", "latitude", "longitude", "urgency", "status", "owner",
+        "neededBy", "createdAt", "updatedAt");
+    
+    private static final List<String> RESOURCE_COLUMNS = List.of("id", "name", "description", "type", "quantity",
+        "location", "latitude", "longitude", "contactInfo", "status", "verified", "owner",
+        "createdAt", "updatedAt");
+    
+    private static final List<String> ASSIGNMENT_COLUMNS = List.of("id", "requestId", "volunteer", "status",
+        "notes", "assignedAt", "completedAt");
+    
+    private final RequestRepository requestRepository;
+    private final ResourceRepository resourceRepository;
+    private final VolunteerAssignmentRepository assignmentRepository;
+    private final EntityManager entityManager;
+    
+    public BulkExportService(RequestRepository requestRepository, ResourceRepository resourceRepository,
+                             VolunteerAssignmentRepository assignmentRepository, EntityManager entityManager) {
+        this.requestRepository = requestRepository;
+        this.resourceRepository = resourceRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.entityManager = entityManager;
+    }
+    
+    public long exportRequests(Request.RequestStatus status, Request.UrgencyLevel urgency,
+                               LocalDateTime from, LocalDateTime to,
+                               BulkFormat format, OutputStream out) throws IOException {
+        return write(requestRepository.streamForExport(status, urgency, from, to), format, out, REQUEST_COLUMNS,
+            r -> Arrays.asList(r.getId(), r.getTitle(), r.getDescription(), r.getResourceType(),
+                r.getQuantityNeeded(), r.getLocation(), r.getLatitude(), r.getLongitude(), r.getUrgency(),
+                r.getStatus(), r.getUser().getUsername(), r.getNeededBy(), r.getCreatedAt(), r.getUpdatedAt()));
+    }
+    
+    public long exportResources(Resource.ResourceType type, Resource.ResourceStatus status,
+                                LocalDateTime from, LocalDateTime to,
+                                BulkFormat format, OutputStream out) throws IOException {
+        return write(resourceRepository.streamForExport(type, status, from, to), format, out, RESOURCE_COLUMNS,
+            r -> Arrays.asList(r.getId(), r.getName(), r.getDescription(), r.getType(), r.getQuantity(),
+                r.getLocation(), r.getLatitude(), r.getLongitude(), r.getContactInfo(), r.getStatus(),
+                r.isVerified(), r.getUser().getUsername(), r.getCreatedAt(), r.getUpdatedAt()));
+    }
+    
+    public long exportAssignments(VolunteerAssignment.AssignmentStatus status,
+                                  LocalDateTime from, LocalDateTime to,
+                                  BulkFormat format, OutputStream out) throws IOException {
+        // The request is only referenced by id, which its uninitialized proxy holds without a query
+        return write(assignmentRepository.streamForExport(status, from, to), format, out, ASSIGNMENT_COLUMNS,
+            a -> Arrays.asList(a.getId(), a.getRequest().getId(), a.getVolunteer().getUsername(), a.getStatus(),
+                a.getNotes(), a.getAssignedAt(), a.getCompletedAt()));
+    }
+    
+    private <T> long write(Stream<T> rows, BulkFormat format, OutputStream out,
+                           List<String> columns, Function<T, List<?>> values) throws IOException {
+        long count = 0;
+        try (rows; BulkFormat.RowWriter writer = format.writer(out, columns)) {
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                writer.write(values.apply(it.next()));
+                if (++count % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,328 @@
+package com.sara.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row formats for bulk import and export. NDJSON is one JSON object per line; CSV starts
+ * with a header row naming the columns and quotes fields as RFC 4180 does. Both are read
+ * and written one row at a time, so a file never has to fit in memory.
+ * <p>
+ * CSV text that a spreadsheet would take for a formula (starting with {@code =},
+ * {@code +}, {@code -}, {@code @}, a tab or a carriage return) is written with a leading
+ * {@code '}, as is text that starts with {@code '} itself; the reader takes one such
+ * {@code '} off again, so an export imports back unchanged.
+ */
+public enum BulkFormat {
+    
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+    
+    private static final ObjectMapper JSON = new ObjectMapper();
+    
+    // First characters a spreadsheet treats as the start of a formula, and the escape itself
+    private static final String FORMULA_START = "=+-@\t\r'";
+    
+    private final String contentType;
+    private final String extension;
+    
+    BulkFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    /**
+     * CSV for a {@code .csv} file name, NDJSON for anything else ({@code .jsonl}, {@code .ndjson}).
+     */
+    public static BulkFormat forFilename(String filename) {
+        return (filename != null && filename.toLowerCase().endsWith(".csv")) ? CSV : NDJSON;
+    }
+    
+    RowReader reader(InputStream in) throws IOException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return this == CSV ? new CsvReader(lines) : new JsonLineReader(lines);
+    }
+    
+    RowWriter writer(OutputStream out, List<String> columns) throws IOException {
+        return this == CSV ? new CsvWriter(out, columns) : new JsonLineWriter(out, columns);
+    }
+    
+    /**
+     * Rows as column name to value, blank values read as {@code null}. A malformed row is
+     * consumed and reported with an {@link IllegalArgumentException}; reading can go on
+     * with the next one.
+     */
+    interface RowReader {
+        
+        /** The next row, or {@code null} at the end of the input. */
+        Map<String, String> next() throws IOException;
+        
+        /** Line on which the row last returned (or rejected) starts. */
+        long line();
+    }
+    
+    interface RowWriter extends Closeable {
+        
+        void write(List<?> values) throws IOException;
+    }
+    
+    private static String blankToNull(String value) {
+        return (value == null || value.isBlank()) ? null : value;
+    }
+    
+    // Exported cells hold text typed by victims and donors, which must not run when an admin opens the file
+    private static String escapeFormula(String text) {
+        return !text.isEmpty() && FORMULA_START.indexOf(text.charAt(0)) >= 0 ? "'" + text : text;
+    }
+    
+    private static String unescapeFormula(String field) {
+        return field.length() > 1 && field.charAt(0) == '\'' && FORMULA_START.indexOf(field.charAt(1)) >= 0
+            ? field.substring(1) : field;
+    }
+    
+    private static final class JsonLineReader implements RowReader {
+        
+        private final BufferedReader lines;
+        private long line = 0;
+        
+        JsonLineReader(BufferedReader lines) {
+            this.lines = lines;
+        }
+        
+        @Override
+        public Map<String, String> next() throws IOException {
+            String text;
+            do {
+                text = lines.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+            JsonNode node;
+            try {
+                node = JSON.readTree(text);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Not valid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            Map<String, String> row = new HashMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = field.getValue();
+                row.put(field.getKey(), value.isNull() ? null
+                    : blankToNull(value.isValueNode() ? value.asText() : value.toString()));
+            }
+            return row;
+        }
+        
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+    
+    private static final class CsvReader implements RowReader {
+        
+        private final BufferedReader in;
+        private List<String> header;
+        private long line = 1;
+        private long rowLine;
+        
+        CsvReader(BufferedReader in) {
+            this.in = in;
+        }
+        
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                // Spreadsheet exports often start with a byte order mark
+                header.replaceAll(name -> name.replace("\uFEFF", "").trim());
+            }
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+            if (fields.size() != header.size()) {
+                throw new IllegalArgumentException(
+                    "Expected " + header.size() + " fields, found " + fields.size());
+            }
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(header.get(i), blankToNull(unescapeFormula(fields.get(i))));
+            }
+            return row;
+        }
+        
+        @Override
+        public long line() {
+            return rowLine;
+        }
+        
+        // One record, which may span lines inside a quoted field; null at the end of input
+        private List<String> readRecord() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            rowLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        c = in.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+    }
+    
+    private static final class JsonLineWriter implements RowWriter {
+        
+        private final JsonGenerator generator;
+        private final List<String> columns;
+        private boolean written = false;
+        
+        JsonLineWriter(OutputStream out, List<String> columns) throws IOException {
+            this.generator = new JsonFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            this.columns = columns;
+        }
+        
+        @Override
+        public void write(List<?> values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeFieldName(columns.get(i));
+                Object value = values.get(i);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Integer number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Double number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            written = true;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (written) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+    
+    private static final class CsvWriter implements RowWriter {
+        
+        private final Writer out;
+        
+        CsvWriter(OutputStream out, List<String> columns) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            write(columns);
+        }
+        
+        @Override
+        public void write(List<?> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Object value = values.get(i);
+                if (value instanceof String text) {
+                    writeField(escapeFormula(text));
+                } else if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            out.write("\r\n");
+        }
+        
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+        
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+}
\ No newline at end of file
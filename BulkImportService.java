@@ -0,0 +1,224 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.entity.User;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of requests and resources from NDJSON or CSV. The file is read a row at a
+ * time; each row is checked against the entity constraints and rows that pass are saved
+ * in chunks of {@code sara.import.batch-size}, one transaction per chunk, so memory stays
+ * flat however large the file is. Rows go through the same persist path as the forms, so
+ * the search, spatial and priority indexes and the caches follow the import as it commits.
+ * <p>
+ * Columns are named after the entity properties, as {@link BulkExportService} writes them;
+ * {@code owner} is the username of the victim (requests) or donor (resources) the row
+ * belongs to. Ids, statuses and timestamps in the file are ignored.
+ */
+@Service
+public class BulkImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+    
+    private static final int PROGRESS_EVERY = 10_000;
+    
+    private final RequestService requestService;
+    private final ResourceService resourceService;
+    private final UserService userService;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxErrors;
+    
+    public BulkImportService(RequestService requestService, ResourceService resourceService,
+                             UserService userService, Validator validator,
+                             @Value("${sara.import.batch-size:500}") int batchSize,
+                             @Value("${sara.import.max-errors:100}") int maxErrors) {
+        this.requestService = requestService;
+        this.resourceService = resourceService;
+        this.userService = userService;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+    
+    public ImportReport importRequests(InputStream in, BulkFormat format) throws IOException {
+        Function<String, User> owners = owners(User.UserRole.VICTIM);
+        return importRows("requests", format.reader(in), row -> {
+            Request request = new Request();
+            request.setTitle(row.get("title"));
+            request.setDescription(row.get("description"));
+            request.setResourceType(parseEnum(Resource.ResourceType.class, row, "resourceType"));
+            request.setQuantityNeeded(parseInteger(row, "quantityNeeded"));
+            request.setLocation(row.get("location"));
+            request.setLatitude(parseDouble(row, "latitude"));
+            request.setLongitude(parseDouble(row, "longitude"));
+            request.setUrgency(parseEnum(Request.UrgencyLevel.class, row, "urgency"));
+            request.setNeededBy(parseDateTime(row, "neededBy"));
+            request.setUser(owners.apply(row.get("owner")));
+            return request;
+        }, requestService::saveRequests);
+    }
+    
+    public ImportReport importResources(InputStream in, BulkFormat format) throws IOException {
+        Function<String, User> owners = owners(User.UserRole.DONOR);
+        return importRows("resources", format.reader(in), row -> {
+            Resource resource = new Resource();
+            resource.setName(row.get("name"));
+            resource.setDescription(row.get("description"));
+            resource.setType(parseEnum(Resource.ResourceType.class, row, "type"));
+            resource.setQuantity(parseInteger(row, "quantity"));
+            resource.setLocation(row.get("location"));
+            resource.setLatitude(parseDouble(row, "latitude"));
+            resource.setLongitude(parseDouble(row, "longitude"));
+            resource.setContactInfo(row.get("contactInfo"));
+            resource.setVerified(Boolean.parseBoolean(row.get("verified")));
+            resource.setUser(owners.apply(row.get("owner")));
+            return resource;
+        }, resourceService::saveResources);
+    }
+    
+    private <T> ImportReport importRows(String entity, BulkFormat.RowReader reader,
+                                        Function<Map<String, String>, T> toEntity,
+                                        Consumer<List<T>> save) throws IOException {
+        long started = System.currentTimeMillis();
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        long[] errorCount = {0};
+        Consumer<ImportReport.RowError> reject = error -> {
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+            errorCount[0]++;
+        };
+        List<T> chunk = new ArrayList<>(batchSize);
+        long chunkLine = 0;
+        long rowsRead = 0;
+        long imported = 0;
+        while (true) {
+            Map<String, String> row;
+            try {
+                row = reader.next();
+            } catch (IllegalArgumentException e) {
+                rowsRead++;
+                reject.accept(new ImportReport.RowError(reader.line(), e.getMessage()));
+                continue;
+            }
+            if (row != null) {
+                rowsRead++;
+                try {
+                    T item = toEntity.apply(row);
+                    String violations = validator.validate(item).stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                    if (!violations.isEmpty()) {
+                        throw new IllegalArgumentException(violations);
+                    }
+                    if (chunk.isEmpty()) {
+                        chunkLine = reader.line();
+                    }
+                    chunk.add(item);
+                } catch (IllegalArgumentException e) {
+                    reject.accept(new ImportReport.RowError(reader.line(), e.getMessage()));
+                }
+            }
+            if (chunk.size() == batchSize || (row == null && !chunk.isEmpty())) {
+                try {
+                    save.accept(chunk);
+                    imported += chunk.size();
+                } catch (RuntimeException e) {
+                    // The chunk was rolled back as a whole; its rows are reported once, at its first line
+                    reject.accept(new ImportReport.RowError(chunkLine,
+                        chunk.size() + " rows not saved: " + rootMessage(e)));
+                }
+                chunk.clear();
+            }
+            if (row == null) {
+                break;
+            }
+            if (rowsRead % PROGRESS_EVERY == 0) {
+                log.info("Importing {}: {} rows read, {} saved", entity, rowsRead, imported);
+            }
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Imported {} of {} {} rows in {} ms", imported, rowsRead, entity, elapsed);
+        return new ImportReport(rowsRead, imported, List.copyOf(errors), errorCount[0], elapsed);
+    }
+    
+    /**
+     * Resolves owner usernames, each once per import, and rejects users without {@code role}.
+     */
+    private Function<String, User> owners(User.UserRole role) {
+        Map<String, Optional<User>> byUsername = new HashMap<>();
+        return username -> {
+            if (username == null) {
+                throw new IllegalArgumentException("owner: is required");
+            }
+            User owner = byUsername.computeIfAbsent(username,
+                    name -> userService.findByUsername(name).filter(user -> user.getRole() == role))
+                .orElseThrow(() -> new IllegalArgumentException(
+                    "owner: no " + role.name().toLowerCase() + " named '" + username + "'"));
+            return owner;
+        };
+    }
+    
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, Map<String, String> row, String column) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(column + ": unknown value '" + value + "'");
+        }
+    }
+    
+    private static Integer parseInteger(Map<String, String> row, String column) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + ": not a whole number '" + value + "'");
+        }
+    }
+    
+    private static Double parseDouble(Map<String, String> row, String column) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + ": not a number '" + value + "'");
+        }
+    }
+    
+    private static LocalDateTime parseDateTime(Map<String, String> row, String column) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + ": not an ISO date-time '" + value + "'");
+        }
+    }
+    
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
\ No newline at end of file
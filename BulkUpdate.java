@@ -0,0 +1,31 @@
+package com.sara.service;
+
+import com.sara.event.EntityChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Steps shared by the set-based status changes. Ids go to the database in slices small
+ * enough for any driver's bind parameter limit, and the changed rows are read back once
+ * and republished as {@link EntityChangeEvent}s, since bulk UPDATEs bypass the entity
+ * callbacks the in-memory indexes and caches follow.
+ */
+final class BulkUpdate {
+    
+    static final int MAX_IDS_PER_STATEMENT = 1000;
+    
+    private BulkUpdate() {}
+    
+    static void inSlices(List<Long> ids, Consumer<List<Long>> statement) {
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            statement.accept(ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_STATEMENT)));
+        }
+    }
+    
+    static <T> void republish(JpaRepository<T, Long> repository, List<Long> ids, ApplicationEventPublisher eventPublisher) {
+        inSlices(ids, slice -> repository.findAllById(slice).forEach(entity ->
+            eventPublisher.publishEvent(new EntityChangeEvent(entity, EntityChangeEvent.Action.UPDATED))));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.sara.service;
+
+/**
+ * Counters of one in-memory cache. Rejections are misses the admission policy chose not
+ * to store; invalidations are entries dropped because the rows behind them changed.
+ */
+public record CacheStats(String name, int size, int maxSize, long hits, long misses,
+                         long evictions, long rejections, long invalidations) {
+    
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.event.DomainEvent;
+import com.sara.event.DomainEventHandler;
+import org.springframework.stereotype.Service;
+import java.util.List;
+
+/**
+ * Returns the stock reserved for a request to its resources once the request is
+ * cancelled, instead of making the status change wait for it.
+ */
+@Service
+public class CancelledRequestHandler implements DomainEventHandler {
+    
+    private final ReservationService reservationService;
+    
+    public CancelledRequestHandler(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+    
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event.concerns(Request.class)
+                    && OutboxService.STATUS_CHANGED.equals(event.eventType())
+                    && Request.RequestStatus.CANCELLED.name().equals(event.newValue())) {
+                reservationService.releaseAllForRequest(event.aggregateId());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.sara.service;
+
+import com.sara.entity.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.util.List;
+
+/**
+ * The authenticated principal. It carries the user's id, role and display fields, so
+ * controllers get the current user from the security context via
+ * {@code @AuthenticationPrincipal} instead of reloading the row on every request.
+ * The fields are a snapshot taken at login.
+ */
+public class CurrentUser extends org.springframework.security.core.userdetails.User {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Long id;
+    private final User.UserRole role;
+    private final String fullName;
+    private final String email;
+    
+    public CurrentUser(User user) {
+        super(user.getUsername(), user.getPassword(), user.isEnabled(), true, true, true,
+              List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        this.id = user.getId();
+        this.role = user.getRole();
+        this.fullName = user.getFullName();
+        this.email = user.getEmail();
+    }
+    
+    public Long getId() { return id; }
+    
+    public User.UserRole getRole() { return role; }
+    
+    public String getFullName() { return fullName; }
+    
+    public String getEmail() { return email; }
+    
+    public boolean owns(User owner) {
+        return owner != null && id.equals(owner.getId());
+    }
+}
\ No newline at end of file
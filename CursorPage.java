@@ -0,0 +1,37 @@
+package com.sara.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+    
+    public static final int DEFAULT_SIZE = 25;
+    
+    private final List<T> items;
+    private final String nextCursor;
+    
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    /**
+     * Builds a page from a query that fetched {@code size + 1} rows; the extra row only
+     * signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode());
+    }
+    
+    public List<T> getItems() { return items; }
+    
+    public String getNextCursor() { return nextCursor; }
+    
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
\ No newline at end of file
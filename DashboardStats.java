@@ -0,0 +1,75 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.entity.User;
+import com.sara.entity.VolunteerAssignment;
+import java.util.Map;
+
+public class DashboardStats {
+    
+    record ResourceBucket(Resource.ResourceStatus status, boolean verified) {}
+    
+    private final Map<User.UserRole, Long> usersByRole;
+    private final Map<ResourceBucket, Long> resourcesByBucket;
+    private final Map<Request.RequestStatus, Long> requestsByStatus;
+    private final Map<VolunteerAssignment.AssignmentStatus, Long> assignmentsByStatus;
+    
+    DashboardStats(Map<User.UserRole, Long> usersByRole,
+                   Map<ResourceBucket, Long> resourcesByBucket,
+                   Map<Request.RequestStatus, Long> requestsByStatus,
+                   Map<VolunteerAssignment.AssignmentStatus, Long> assignmentsByStatus) {
+        this.usersByRole = usersByRole;
+        this.resourcesByBucket = resourcesByBucket;
+        this.requestsByStatus = requestsByStatus;
+        this.assignmentsByStatus = assignmentsByStatus;
+    }
+    
+    public static DashboardStats empty() {
+        return new DashboardStats(Map.of(), Map.of(), Map.of(), Map.of());
+    }
+    
+    public long getTotalUsers() {
+        return sum(usersByRole);
+    }
+    
+    public long getUsersCount(User.UserRole role) {
+        return usersByRole.getOrDefault(role, 0L);
+    }
+    
+    public long getTotalResources() {
+        return sum(resourcesByBucket);
+    }
+    
+    public long getResourcesCount(Resource.ResourceStatus status) {
+        return resourcesByBucket.getOrDefault(new ResourceBucket(status, true), 0L)
+            + resourcesByBucket.getOrDefault(new ResourceBucket(status, false), 0L);
+    }
+    
+    public long getVerifiedResources() {
+        return resourcesByBucket.entrySet().stream()
+            .filter(e -> e.getKey().verified())
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+    }
+    
+    public long getTotalRequests() {
+        return sum(requestsByStatus);
+    }
+    
+    public long getRequestsCount(Request.RequestStatus status) {
+        return requestsByStatus.getOrDefault(status, 0L);
+    }
+    
+    public long getTotalAssignments() {
+        return sum(assignmentsByStatus);
+    }
+    
+    public long getAssignmentsCount(VolunteerAssignment.AssignmentStatus status) {
+        return assignmentsByStatus.getOrDefault(status, 0L);
+    }
+    
+    private static long sum(Map<?, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.entity.User;
+import com.sara.entity.VolunteerAssignment;
+import com.sara.event.EntityChangeEvent;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ResourceRepository;
+import com.sara.repository.UserRepository;
+import com.sara.repository.VolunteerAssignmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Admin dashboard counters. Without the snapshot every call runs one grouped COUNT
+ * per table; with {@code sara.dashboard.stats-snapshot=true} the counters are loaded
+ * once at startup and then moved by entity change events, so reads touch no table.
+ */
+@Service
+public class DashboardStatsService {
+    
+    private final UserRepository userRepository;
+    private final ResourceRepository resourceRepository;
+    private final RequestRepository requestRepository;
+    private final VolunteerAssignmentRepository volunteerAssignmentRepository;
+    private final boolean snapshotEnabled;
+    
+    private final KeyedCounter<User.UserRole> users = new KeyedCounter<>();
+    private final KeyedCounter<DashboardStats.ResourceBucket> resources = new KeyedCounter<>();
+    private final KeyedCounter<Request.RequestStatus> requests = new KeyedCounter<>();
+    private final KeyedCounter<VolunteerAssignment.AssignmentStatus> assignments = new KeyedCounter<>();
+    private volatile boolean snapshotReady = false;
+    
+    public DashboardStatsService(UserRepository userRepository,
+                                 ResourceRepository resourceRepository,
+                                 RequestRepository requestRepository,
+                                 VolunteerAssignmentRepository volunteerAssignmentRepository,
+                                 @Value("${sara.dashboard.stats-snapshot:true}") boolean snapshotEnabled) {
+        this.userRepository = userRepository;
+        this.resourceRepository = resourceRepository;
+        this.requestRepository = requestRepository;
+        this.volunteerAssignmentRepository = volunteerAssignmentRepository;
+        this.snapshotEnabled = snapshotEnabled;
+    }
+    
+    @Transactional(readOnly = true)
+    public DashboardStats getStats() {
+        if (snapshotEnabled && snapshotReady) {
+            return new DashboardStats(users.counts(), resources.counts(), requests.counts(), assignments.counts());
+        }
+        return queryStats();
+    }
+    
+    @Transactional(readOnly = true)
+    public DashboardStats queryStats() {
+        Map<User.UserRole, Long> usersByRole = new HashMap<>();
+        for (Object[] row : userRepository.countGroupedByRole()) {
+            usersByRole.put((User.UserRole) row[0], (Long) row[1]);
+        }
+        Map<DashboardStats.ResourceBucket, Long> resourcesByBucket = new HashMap<>();
+        for (Object[] row : resourceRepository.countGroupedByStatusAndVerified()) {
+            resourcesByBucket.put(new DashboardStats.ResourceBucket((Resource.ResourceStatus) row[0], (Boolean) row[1]),
+                (Long) row[2]);
+        }
+        Map<Request.RequestStatus, Long> requestsByStatus = new HashMap<>();
+        for (Object[] row : requestRepository.countGroupedByStatus()) {
+            requestsByStatus.put((Request.RequestStatus) row[0], (Long) row[1]);
+        }
+        Map<VolunteerAssignment.AssignmentStatus, Long> assignmentsByStatus = new HashMap<>();
+        for (Object[] row : volunteerAssignmentRepository.countGroupedByStatus()) {
+            assignmentsByStatus.put((VolunteerAssignment.AssignmentStatus) row[0], (Long) row[1]);
+        }
+        return new DashboardStats(usersByRole, resourcesByBucket, requestsByStatus, assignmentsByStatus);
+    }
+    
+    /**
+     * Loads the snapshot from the database on startup; from then on it follows entity
+     * change events, which bulk updates republish for the rows they change.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void refreshSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        users.reset(keys(userRepository.findAllRoleKeys(), row -> (User.UserRole) row[1]));
+        resources.reset(keys(resourceRepository.findAllStatusKeys(),
+            row -> new DashboardStats.ResourceBucket((Resource.ResourceStatus) row[1], (Boolean) row[2])));
+        requests.reset(keys(requestRepository.findAllStatusKeys(), row -> (Request.RequestStatus) row[1]));
+        assignments.reset(keys(volunteerAssignmentRepository.findAllStatusKeys(),
+            row -> (VolunteerAssignment.AssignmentStatus) row[1]));
+        snapshotReady = true;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!snapshotEnabled) {
+            return;
+        }
+        Object entity = event.getEntity();
+        if (entity instanceof User user) {
+            apply(users, user.getId(), user.getRole(), event);
+        } else if (entity instanceof Resource resource) {
+            apply(resources, resource.getId(),
+                new DashboardStats.ResourceBucket(resource.getStatus(), resource.isVerified()), event);
+        } else if (entity instanceof Request request) {
+            apply(requests, request.getId(), request.getStatus(), event);
+        } else if (entity instanceof VolunteerAssignment assignment) {
+            apply(assignments, assignment.getId(), assignment.getStatus(), event);
+        }
+    }
+    
+    private static <K> void apply(KeyedCounter<K> counter, Long id, K key, EntityChangeEvent event) {
+        if (event.isDeleted()) {
+            counter.remove(id);
+        } else {
+            counter.put(id, key);
+        }
+    }
+    
+    private static <K> Map<Long, K> keys(List<Object[]> rows, Function<Object[], K> keyOf) {
+        Map<Long, K> keys = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            keys.put((Long) row[0], keyOf.apply(row));
+        }
+        return keys;
+    }
+}
\ No newline at end of file
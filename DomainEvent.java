@@ -0,0 +1,15 @@
+package com.sara.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed domain event as handed to {@link DomainEventHandler}s. Events of one
+ * aggregate (type and id) are always delivered in the order they were written.
+ */
+public record DomainEvent(Long id, String aggregateType, Long aggregateId, String eventType,
+                          String previousValue, String newValue, LocalDateTime occurredAt) {
+    
+    public boolean concerns(Class<?> aggregate) {
+        return aggregate.getSimpleName().equals(aggregateType);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.sara.event;
+
+import java.util.List;
+
+/**
+ * Consumer of outbox events. A call carries the pending events of one aggregate, in
+ * order. Delivery is at-least-once: events of an aggregate that throws are handed over
+ * again, one at a time and on the next poll, together with events other handlers already
+ * processed, so handlers must be idempotent. Handlers run on the relay's worker threads, outside the transaction
+ * that wrote the events.
+ */
+public interface DomainEventHandler {
+    
+    void handle(List<DomainEvent> events);
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.sara.service;
+
+import com.sara.entity.OutboxEvent;
+import com.sara.event.DomainEvent;
+import com.sara.event.DomainEventHandler;
+import com.sara.event.EntityChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox events to every {@link DomainEventHandler} off the request threads.
+ * A single relay thread reads pending events in id order and splits each batch by
+ * aggregate over a pool of workers, so one aggregate's events stay in one partition
+ * and are handled in order while different aggregates proceed in parallel. The next
+ * batch is only read once every partition is done. Events are marked processed after
+ * their handlers return. Within a partition each aggregate is handed over on its own;
+ * when one throws, its events are handed over again one at a time to find the event
+ * that fails. The events before it are marked processed, the failure is counted against
+ * that event alone, and it and the aggregate's later events stay pending for the next
+ * poll, until it has failed {@code max-attempts} times and is parked as FAILED. Other
+ * aggregates, in the same partition or not, are not held up.
+ * <p>
+ * Pending events are read without being claimed, so the relay assumes it is the only
+ * one running against the database: a second application instance would deliver the
+ * same events again, and could deliver an aggregate's events out of order.
+ */
+@Service
+public class DomainEventRelay {
+    
+    private final OutboxService outboxService;
+    private final List<DomainEventHandler> handlers;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    
+    private final ExecutorService relay = Executors.newSingleThreadExecutor(named("outbox-relay"));
+    private final ExecutorService workers;
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedDeliveryCount = new AtomicLong();
+    
+    private record AggregateKey(String type, Long id) {}
+    
+    private record Failure(Long eventId, String error) {}
+    
+    private record Outcome(List<Long> delivered, List<Failure> failures) {}
+    
+    public DomainEventRelay(OutboxService outboxService, List<DomainEventHandler> handlers,
+                            @Value("${sara.outbox.workers:4}") int workerCount,
+                            @Value("${sara.outbox.batch-size:200}") int batchSize,
+                            @Value("${sara.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxService = outboxService;
+        this.handlers = handlers;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.workers = Executors.newFixedThreadPool(workerCount, named("outbox-worker"));
+    }
+    
+    // Events left pending by a previous run are delivered on startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        wakeUp();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntity() instanceof OutboxEvent) {
+            wakeUp();
+        }
+    }
+    
+    // Safety net for wake-ups lost to a crash, and the retry interval for failed partitions
+    @Scheduled(fixedDelayString = "${sara.outbox.poll-interval-ms:5000}",
+               initialDelayString = "${sara.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+    
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+    
+    public long getFailedDeliveryCount() {
+        return failedDeliveryCount.get();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        relay.shutdownNow();
+        workers.shutdownNow();
+    }
+    
+    // Any number of wake-ups while a drain is queued collapse into that one drain
+    private void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            relay.execute(this::drain);
+        }
+    }
+    
+    private void drain() {
+        drainQueued.set(false);
+        List<DomainEvent> batch;
+        do {
+            batch = outboxService.findPending(batchSize);
+        } while (deliver(batch) && batch.size() == batchSize);
+    }
+    
+    // Returns false if any aggregate failed, leaving the retry to the next poll
+    private boolean deliver(List<DomainEvent> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        Map<AggregateKey, List<DomainEvent>> byAggregate = new LinkedHashMap<>();
+        for (DomainEvent event : batch) {
+            byAggregate.computeIfAbsent(new AggregateKey(event.aggregateType(), event.aggregateId()),
+                key -> new ArrayList<>()).add(event);
+        }
+        List<List<List<DomainEvent>>> partitions = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        byAggregate.forEach((key, events) -> partitions.get(Math.floorMod(key.hashCode(), workerCount)).add(events));
+        
+        List<Future<Outcome>> results = new ArrayList<>();
+        for (List<List<DomainEvent>> partition : partitions) {
+            if (!partition.isEmpty()) {
+                results.add(workers.submit(() -> deliverPartition(partition)));
+            }
+        }
+        
+        List<Long> processed = new ArrayList<>();
+        boolean allDelivered = true;
+        for (Future<Outcome> result : results) {
+            try {
+                Outcome outcome = result.get();
+                processed.addAll(outcome.delivered());
+                for (Failure failure : outcome.failures()) {
+                    allDelivered = false;
+                    failedDeliveryCount.incrementAndGet();
+                    outboxService.recordFailure(List.of(failure.eventId()), failure.error(), maxAttempts);
+                }
+            } catch (ExecutionException e) {
+                // Only an Error gets here; nothing is counted against the events and the next poll retries them
+                allDelivered = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        outboxService.markProcessed(processed);
+        deliveredCount.addAndGet(processed.size());
+        return allDelivered;
+    }
+    
+    private Outcome deliverPartition(List<List<DomainEvent>> aggregates) {
+        List<Long> delivered = new ArrayList<>();
+        List<Failure> failures = new ArrayList<>();
+        for (List<DomainEvent> events : aggregates) {
+            try {
+                dispatch(events);
+                events.forEach(event -> delivered.add(event.id()));
+            } catch (RuntimeException e) {
+                if (events.size() == 1) {
+                    failures.add(new Failure(events.get(0).id(), String.valueOf(e)));
+                    continue;
+                }
+                // Events after the failing one stay pending, so the aggregate's order holds
+                for (DomainEvent event : events) {
+                    try {
+                        dispatch(List.of(event));
+                        delivered.add(event.id());
+                    } catch (RuntimeException single) {
+                        failures.add(new Failure(event.id(), String.valueOf(single)));
+                        break;
+                    }
+                }
+            }
+        }
+        return new Outcome(delivered, failures);
+    }
+    
+    private void dispatch(List<DomainEvent> events) {
+        handlers.forEach(handler -> handler.handle(events));
+    }
+    
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
\ No newline at end of file
@@ -1,17 +1,21 @@
 package com.sara.controller;
 
 import com.sara.entity.Resource;
-import com.sara.entity.User;
+import com.sara.service.CurrentUser;
+import com.sara.service.EntityCacheService;
 import com.sara.service.ResourceService;
 import com.sara.service.UserService;
+import com.sara.service.UserSummary;
+import com.sara.service.UserSummaryService;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
-import java.security.Principal;
 import java.util.Optional;
 
 @Controller
@@ -19,35 +23,35 @@ import java.util.Optional;
 @PreAuthorize("hasRole('DONOR') or hasRole('ADMIN')")
 public class DonorController {
     
+    private static final String STALE_EDIT = "This resource changed while you were editing it, " +
+        "possibly because some of it was reserved. Check the current values below and save again.";
+    
     private final ResourceService resourceService;
     private final UserService userService;
+    private final UserSummaryService userSummaryService;
+    private final EntityCacheService entityCacheService;
     
-    public DonorController(ResourceService resourceService, UserService userService) {
+    public DonorController(ResourceService resourceService, UserService userService,
+                           UserSummaryService userSummaryService, EntityCacheService entityCacheService) {
         this.resourceService = resourceService;
         this.userService = userService;
+        this.userSummaryService = userSummaryService;
+        this.entityCacheService = entityCacheService;
     }
     
     @GetMapping("/dashboard")
-    public String dashboard(Model model, Principal principal) {
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            model.addAttribute("user", user.get());
-            model.addAttribute("userResources", resourceService.findByUser(user.get()));
-            model.addAttribute("totalResources", resourceService.findByUser(user.get()).size());
-            model.addAttribute("availableResources", 
-                resourceService.findByUser(user.get()).stream()
-                    .filter(r -> r.getStatus() == Resource.ResourceStatus.AVAILABLE)
-                    .count());
-        }
+    public String dashboard(Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        UserSummary<Resource.ResourceStatus, Resource> summary = userSummaryService.getDonorSummary(currentUser.getId());
+        model.addAttribute("user", currentUser);
+        model.addAttribute("userResources", summary.getRecent());
+        model.addAttribute("totalResources", summary.getTotal());
+        model.addAttribute("availableResources", summary.getCount(Resource.ResourceStatus.AVAILABLE));
         return "donor/dashboard";
     }
     
     @GetMapping("/resources")
-    public String resources(Model model, Principal principal) {
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            model.addAttribute("resources", resourceService.findByUser(user.get()));
-        }
+    public String resources(Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        model.addAttribute("resources", resourceService.findByUser(userService.getReference(currentUser.getId())));
         return "donor/resources";
     }
     
@@ -74,7 +78,7 @@ public class DonorController {
     public String createResource(@Valid @ModelAttribute("resource") Resource resource,
                                 BindingResult result,
                                 Model model,
-                                Principal principal,
+                                @AuthenticationPrincipal CurrentUser currentUser,
                                 RedirectAttributes redirectAttributes) {
         
         if (result.hasErrors()) {
@@ -93,18 +97,15 @@ public class DonorController {
             return "donor/resource-form";
         }
         
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            resource.setUser(user.get());
-            resourceService.saveResource(resource);
-            redirectAttributes.addFlashAttribute("success", "Resource posted successfully!");
-        }
+        resource.setUser(userService.getReference(currentUser.getId()));
+        resourceService.saveResource(resource);
+        redirectAttributes.addFlashAttribute("success", "Resource posted successfully!");
         
         return "redirect:/donor/resources";
     }
     
     @GetMapping("/resources/{id}/edit")
-    public String editResourceForm(@PathVariable String id, Model model, Principal principal) {
+    public String editResourceForm(@PathVariable String id, Model model, @AuthenticationPrincipal CurrentUser currentUser) {
         // Defensive: If id is not a number, redirect to resources
         Long resourceId = null;
         try {
@@ -112,11 +113,10 @@ public class DonorController {
         } catch (NumberFormatException e) {
             return "redirect:/donor/resources";
         }
-        Optional<Resource> resource = resourceService.findById(resourceId);
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (resource.isPresent() && user.isPresent()) {
+        Optional<Resource> resource = entityCacheService.findResource(resourceId);
+        if (resource.isPresent()) {
             // Check if the resource belongs to the current user
-            if (!resource.get().getUser().getId().equals(user.get().getId())) {
+            if (!currentUser.owns(resource.get().getUser())) {
                 return "redirect:/donor/resources";
             }
             model.addAttribute("resource", resource.get());
@@ -131,7 +131,7 @@ public class DonorController {
                                 @Valid @ModelAttribute("resource") Resource resource,
                                 BindingResult result,
                                 Model model,
-                                Principal principal,
+                                @AuthenticationPrincipal CurrentUser currentUser,
                                 RedirectAttributes redirectAttributes) {
         
         if (result.hasErrors()) {
@@ -140,24 +140,35 @@ public class DonorController {
         }
         
         Optional<Resource> existingResource = resourceService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
         
-        if (existingResource.isPresent() && user.isPresent()) {
+        if (existingResource.isPresent()) {
             // Check if the resource belongs to the current user
-            if (!existingResource.get().getUser().getId().equals(user.get().getId())) {
+            if (!currentUser.owns(existingResource.get().getUser())) {
                 return "redirect:/donor/resources";
             }
             
             Resource updatedResource = existingResource.get();
+            // The form carries the version it was drawn from; reservations taken since then change the quantity underneath it
+            if (resource.getVersion() == null || !resource.getVersion().equals(updatedResource.getVersion())) {
+                redirectAttributes.addFlashAttribute("error", STALE_EDIT);
+                return "redirect:/donor/resources/" + id + "/edit";
+            }
             updatedResource.setName(resource.getName());
             updatedResource.setDescription(resource.getDescription());
             updatedResource.setType(resource.getType());
             updatedResource.setQuantity(resource.getQuantity());
             updatedResource.setLocation(resource.getLocation());
+            updatedResource.setLatitude(resource.getLatitude());
+            updatedResource.setLongitude(resource.getLongitude());
             updatedResource.setContactInfo(resource.getContactInfo());
             updatedResource.setStatus(resource.getStatus());
             
-            resourceService.updateResource(updatedResource);
+            try {
+                resourceService.updateResource(updatedResource);
+            } catch (OptimisticLockingFailureException e) {
+                redirectAttributes.addFlashAttribute("error", STALE_EDIT);
+                return "redirect:/donor/resources/" + id + "/edit";
+            }
             redirectAttributes.addFlashAttribute("success", "Resource updated successfully!");
         }
         
@@ -166,15 +177,14 @@ public class DonorController {
     
     @PostMapping("/resources/{id}/delete")
     public String deleteResource(@PathVariable Long id, 
-                                Principal principal,
+                                @AuthenticationPrincipal CurrentUser currentUser,
                                 RedirectAttributes redirectAttributes) {
         
         Optional<Resource> resource = resourceService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
         
-        if (resource.isPresent() && user.isPresent()) {
+        if (resource.isPresent()) {
             // Check if the resource belongs to the current user
-            if (resource.get().getUser().getId().equals(user.get().getId())) {
+            if (currentUser.owns(resource.get().getUser())) {
                 resourceService.deleteResource(id);
                 redirectAttributes.addFlashAttribute("success", "Resource deleted successfully!");
             }
@@ -184,13 +194,12 @@ public class DonorController {
     }
     
     @GetMapping("/resources/{id}")
-    public String viewResource(@PathVariable Long id, Model model, Principal principal) {
-        Optional<Resource> resource = resourceService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
+    public String viewResource(@PathVariable Long id, Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        Optional<Resource> resource = entityCacheService.findResource(id);
         
-        if (resource.isPresent() && user.isPresent()) {
+        if (resource.isPresent()) {
             // Check if the resource belongs to the current user
-            if (!resource.get().getUser().getId().equals(user.get().getId())) {
+            if (!currentUser.owns(resource.get().getUser())) {
                 return "redirect:/donor/resources";
             }
             
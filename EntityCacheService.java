@@ -0,0 +1,55 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.event.EntityChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Near cache of resources and requests by id for the detail and edit-form pages. The
+ * instances returned are shared between requests and must only be read; any path that
+ * modifies an entity loads it through {@link ResourceService} or {@link RequestService}.
+ * Entries are dropped as soon as a change to the row commits.
+ */
+@Service
+public class EntityCacheService {
+    
+    private final ResourceService resourceService;
+    private final RequestService requestService;
+    private final BoundedCache<Long, Resource> resources;
+    private final BoundedCache<Long, Request> requests;
+    
+    public EntityCacheService(ResourceService resourceService, RequestService requestService,
+                              @Value("${sara.entity-cache.max-entries:2000}") int maxEntries,
+                              @Value("${sara.entity-cache.ttl-ms:300000}") long ttlMillis) {
+        this.resourceService = resourceService;
+        this.requestService = requestService;
+        this.resources = BoundedCache.tinyLfu("resource-by-id", maxEntries, ttlMillis);
+        this.requests = BoundedCache.tinyLfu("request-by-id", maxEntries, ttlMillis);
+    }
+    
+    public Optional<Resource> findResource(Long id) {
+        return Optional.ofNullable(resources.get(id, () -> resourceService.findById(id).orElse(null)));
+    }
+    
+    public Optional<Request> findRequest(Long id) {
+        return Optional.ofNullable(requests.get(id, () -> requestService.findById(id).orElse(null)));
+    }
+    
+    public List<CacheStats> getStats() {
+        return List.of(resources.stats(), requests.stats());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntity() instanceof Resource resource) {
+            resources.invalidate(resource.getId());
+        } else if (event.getEntity() instanceof Request request) {
+            requests.invalidate(request.getId());
+        }
+    }
+}
\ No newline at end of file
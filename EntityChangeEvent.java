@@ -0,0 +1,24 @@
+package com.sara.event;
+
+public class EntityChangeEvent {
+    
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+    
+    private final Object entity;
+    private final Action action;
+    
+    public EntityChangeEvent(Object entity, Action action) {
+        this.entity = entity;
+        this.action = action;
+    }
+    
+    public Object getEntity() { return entity; }
+    
+    public Action getAction() { return action; }
+    
+    public boolean isDeleted() {
+        return action == Action.DELETED;
+    }
+}
\ No newline at end of file
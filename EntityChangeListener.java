@@ -0,0 +1,37 @@
+package com.sara.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA callback that republishes entity writes as {@link EntityChangeEvent}s so that
+ * in-memory structures (search index, caches, ...) can follow the database with
+ * {@code @TransactionalEventListener} once the surrounding transaction commits.
+ */
+@Component
+public class EntityChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public EntityChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostPersist
+    public void onPersist(Object entity) {
+        eventPublisher.publishEvent(new EntityChangeEvent(entity, EntityChangeEvent.Action.CREATED));
+    }
+    
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        eventPublisher.publishEvent(new EntityChangeEvent(entity, EntityChangeEvent.Action.UPDATED));
+    }
+    
+    @PostRemove
+    public void onRemove(Object entity) {
+        eventPublisher.publishEvent(new EntityChangeEvent(entity, EntityChangeEvent.Action.DELETED));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.sara.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Uniform latitude/longitude grid over points with facets. Nearest-neighbour
+ * queries scan rings of cells outwards from the query cell and stop as soon as no
+ * unvisited ring can hold a closer point than the current k-th best.
+ */
+public class GeoGridIndex<F> {
+    
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+    
+    private final double cellDegrees;
+    private final int lonCells;
+    private final int maxRing;
+    
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Point<F>> points = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    private record Point<F>(double latitude, double longitude, long cell, F facets) {}
+    
+    public record Neighbour(Long id, double distanceKm) {}
+    
+    public GeoGridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.lonCells = (int) Math.ceil(360.0 / cellDegrees);
+        this.maxRing = (int) Math.ceil(180.0 / cellDegrees);
+    }
+    
+    public void put(Long id, double latitude, double longitude, F facets) {
+        long cell = cellKey(latCell(latitude), lonCell(longitude));
+        writeLock.lock();
+        try {
+            removeInternal(id);
+            points.put(id, new Point<>(latitude, longitude, cell, facets));
+            cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            removeInternal(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public void clear() {
+        writeLock.lock();
+        try {
+            cells.clear();
+            points.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public int size() {
+        return points.size();
+    }
+    
+    /**
+     * Returns up to {@code limit} points accepted by {@code filter}, closest first. A
+     * zero {@code radiusKm} means unbounded. Coordinates off the globe, a negative
+     * radius or a non-finite value throw {@link IllegalArgumentException}.
+     */
+    public List<Neighbour> nearest(double latitude, double longitude, double radiusKm,
+                                   Predicate<F> filter, int limit) {
+        if (!(latitude >= -90.0 && latitude <= 90.0)) {
+            throw new IllegalArgumentException("Latitude must be a number between -90 and 90.");
+        }
+        if (!(longitude >= -180.0 && longitude <= 180.0)) {
+            throw new IllegalArgumentException("Longitude must be a number between -180 and 180.");
+        }
+        if (!(radiusKm >= 0 && Double.isFinite(radiusKm))) {
+            throw new IllegalArgumentException("Radius must be a number of kilometres, 0 or more.");
+        }
+        if (limit <= 0 || points.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double maxDistance = radiusKm > 0 ? radiusKm : Double.MAX_VALUE;
+        int centreLat = latCell(latitude);
+        int centreLon = lonCell(longitude);
+        int total = points.size();
+        int visited = 0;
+        
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(
+            Comparator.comparingDouble(Neighbour::distanceKm).reversed());
+        
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double bound = best.size() == limit ? Math.min(maxDistance, best.peek().distanceKm()) : maxDistance;
+            if (ringDistance(latitude, ring) > bound || visited >= total) {
+                break;
+            }
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                int latCell = centreLat + dLat;
+                if (latCell < 0 || latCell * cellDegrees > 180.0) {
+                    continue;
+                }
+                if (Math.abs(dLat) == ring) {
+                    // Once a ring spans the whole parallel its columns start repeating
+                    int width = Math.min(2 * ring + 1, lonCells);
+                    for (int dLon = -ring; dLon < width - ring; dLon++) {
+                        visited += collect(latCell, centreLon + dLon, latitude, longitude, maxDistance, filter, limit, best);
+                    }
+                    continue;
+                }
+                // The rows inside the ring only gain its two outer columns, until those meet behind the query
+                if (2 * ring - 1 < lonCells) {
+                    visited += collect(latCell, centreLon - ring, latitude, longitude, maxDistance, filter, limit, best);
+                }
+                if (2 * ring < lonCells) {
+                    visited += collect(latCell, centreLon + ring, latitude, longitude, maxDistance, filter, limit, best);
+                }
+            }
+        }
+        
+        List<Neighbour> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbour::distanceKm));
+        return result;
+    }
+    
+    // Points looked at in the cell, whether or not they were kept
+    private int collect(int latCell, int lonCell, double latitude, double longitude, double maxDistance,
+                        Predicate<F> filter, int limit, PriorityQueue<Neighbour> best) {
+        Set<Long> ids = cells.get(cellKey(latCell, Math.floorMod(lonCell, lonCells)));
+        if (ids == null) {
+            return 0;
+        }
+        int visited = 0;
+        for (Long id : ids) {
+            Point<F> point = points.get(id);
+            if (point == null) {
+                continue;
+            }
+            visited++;
+            if (filter != null && !filter.test(point.facets())) {
+                continue;
+            }
+            double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance > maxDistance) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Neighbour(id, distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Neighbour(id, distance));
+            }
+        }
+        return visited;
+    }
+    
+    /**
+     * Closest any point of a ring can be to a query at {@code latitude}: at least ring - 1
+     * cells north or south, or that many cells east or west. The last column is narrower
+     * when the cell size does not divide 360, and crossing longitudes near a pole costs
+     * little, down to the distance over the pole once they differ by 90 degrees or more.
+     * Never decreases with the ring, so the first ring beyond reach ends the search.
+     */
+    private double ringDistance(double latitude, int ring) {
+        double latDegrees = Math.max(0, ring - 1) * cellDegrees;
+        double lonDegrees = Math.max(0, Math.min((ring - 1) * cellDegrees - (lonCells * cellDegrees - 360.0),
+            180.0 - 2 * cellDegrees));
+        double lonKm = EARTH_RADIUS_KM * Math.asin(Math.min(1.0,
+            Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(Math.min(90.0, lonDegrees)))));
+        return Math.min(latDegrees * KM_PER_DEGREE, lonKm);
+    }
+    
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+    
+    private int latCell(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellDegrees);
+    }
+    
+    private int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / cellDegrees), lonCells);
+    }
+    
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+    
+    private void removeInternal(Long id) {
+        Point<F> previous = points.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Set<Long> ids = cells.get(previous.cell());
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                cells.remove(previous.cell(), ids);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -2,77 +2,73 @@ package com.sara.controller;
 
 import com.sara.entity.Resource;
 import com.sara.entity.Request;
-import com.sara.service.ResourceService;
-import com.sara.service.RequestService;
-import com.sara.service.UserService;
+import com.sara.service.BrowseCacheService;
+import com.sara.service.CurrentUser;
+import com.sara.service.CursorPage;
+import com.sara.service.DashboardStatsService;
+import com.sara.service.UserSummaryService;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import java.security.Principal;
 import java.util.List;
 
 @Controller
 public class HomeController {
     
-    private final ResourceService resourceService;
-    private final RequestService requestService;
-    private final UserService userService;
+    private final BrowseCacheService browseCacheService;
+    private final UserSummaryService userSummaryService;
+    private final DashboardStatsService dashboardStatsService;
+    private final PageComposer pageComposer;
     
-    public HomeController(ResourceService resourceService, RequestService requestService, UserService userService) {
-        this.resourceService = resourceService;
-        this.requestService = requestService;
-        this.userService = userService;
+    public HomeController(BrowseCacheService browseCacheService, UserSummaryService userSummaryService,
+                          DashboardStatsService dashboardStatsService, PageComposer pageComposer) {
+        this.browseCacheService = browseCacheService;
+        this.userSummaryService = userSummaryService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.pageComposer = pageComposer;
     }
     
     @GetMapping({"/", "/home"})
     public String home(Model model) {
         // Get recent resources and requests for the home page
-        List<Resource> recentResources = resourceService.findAvailableResources().stream()
-                .limit(6)
-                .toList();
-        List<Request> urgentRequests = requestService.findOpenRequests().stream()
-                .limit(6)
-                .toList();
-        
-        model.addAttribute("recentResources", recentResources);
-        model.addAttribute("urgentRequests", urgentRequests);
+        pageComposer.compose(model)
+            .add("recentResources", () -> browseCacheService.findAvailableResourcesPage(null, null, 6).getItems(), List.of())
+            .add("urgentRequests", () -> browseCacheService.findOpenRequestsPage(null, null, 6).getItems(), List.of())
+            .fetch();
         
         return "home";
     }
     
     @GetMapping("/dashboard")
-    public String dashboard(Model model, Principal principal) {
-        if (principal == null) {
-            return "redirect:/login";
-        }
-        
-        var user = userService.findByUsername(principal.getName());
-        if (user.isEmpty()) {
+    public String dashboard(Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        if (currentUser == null) {
             return "redirect:/login";
         }
         
-        model.addAttribute("user", user.get());
+        model.addAttribute("user", currentUser);
         
         // Add role-specific dashboard data
-        switch (user.get().getRole()) {
+        switch (currentUser.getRole()) {
             case ADMIN -> {
-                model.addAttribute("totalUsers", userService.getTotalUsersCount());
-                model.addAttribute("totalResources", resourceService.getTotalResourcesCount());
-                model.addAttribute("totalRequests", requestService.getTotalRequestsCount());
-                model.addAttribute("openRequests", requestService.getOpenRequestsCount());
+                var stats = dashboardStatsService.getStats();
+                model.addAttribute("totalUsers", stats.getTotalUsers());
+                model.addAttribute("totalResources", stats.getTotalResources());
+                model.addAttribute("totalRequests", stats.getTotalRequests());
+                model.addAttribute("openRequests", stats.getRequestsCount(Request.RequestStatus.OPEN));
                 return "admin/dashboard";
             }
             case DONOR -> {
-                model.addAttribute("userResources", resourceService.findByUser(user.get()));
+                model.addAttribute("userResources", userSummaryService.getDonorSummary(currentUser.getId()).getRecent());
                 return "donor/dashboard";
             }
             case VOLUNTEER -> {
-                model.addAttribute("availableRequests", requestService.findOpenRequests().stream().limit(10).toList());
+                model.addAttribute("availableRequests", browseCacheService.findOpenRequestsPage(null, null, 10).getItems());
                 return "volunteer/dashboard";
             }
             case VICTIM -> {
-                model.addAttribute("userRequests", requestService.findByUser(user.get()));
+                model.addAttribute("userRequests", userSummaryService.getVictimSummary(currentUser.getId()).getRecent());
                 return "victim/dashboard";
             }
             default -> {
@@ -83,17 +79,18 @@ public class HomeController {
     
     @GetMapping("/resources")
     public String resources(Model model, 
+                           @RequestParam(required = false) String q,
                            @RequestParam(required = false) Resource.ResourceType type,
-                           @RequestParam(required = false) String location) {
-        List<Resource> resources;
-        
-        if (type != null || (location != null && !location.isEmpty())) {
-            resources = resourceService.findFilteredResources(type, location);
+                           @RequestParam(required = false) String location,
+                           @RequestParam(required = false) String cursor) {
+        if ((q != null && !q.isEmpty()) || (location != null && !location.isEmpty())) {
+            Pagination.addSearchResults(model, "resources", browseCacheService.searchResources(q, type, location));
         } else {
-            resources = resourceService.findAvailableResources();
+            Pagination.addPage(model, "resources",
+                browseCacheService.findAvailableResourcesPage(type, cursor, CursorPage.DEFAULT_SIZE), cursor);
         }
         
-        model.addAttribute("resources", resources);
+        model.addAttribute("query", q);
         model.addAttribute("resourceTypes", Resource.ResourceType.values());
         model.addAttribute("selectedType", type);
         model.addAttribute("selectedLocation", location);
@@ -103,17 +100,18 @@ public class HomeController {
     
     @GetMapping("/requests")
     public String requests(Model model,
+                          @RequestParam(required = false) String q,
                           @RequestParam(required = false) Request.UrgencyLevel urgency,
-                          @RequestParam(required = false) String location) {
-        List<Request> requests;
-        
-        if (urgency != null || (location != null && !location.isEmpty())) {
-            requests = requestService.findFilteredRequests(urgency, location);
+                          @RequestParam(required = false) String location,
+                          @RequestParam(required = false) String cursor) {
+        if ((q != null && !q.isEmpty()) || (location != null && !location.isEmpty())) {
+            Pagination.addSearchResults(model, "requests", browseCacheService.searchRequests(q, urgency, location));
         } else {
-            requests = requestService.findOpenRequests();
+            Pagination.addPage(model, "requests",
+                browseCacheService.findOpenRequestsPage(urgency, cursor, CursorPage.DEFAULT_SIZE), cursor);
         }
         
-        model.addAttribute("requests", requests);
+        model.addAttribute("query", q);
         model.addAttribute("urgencyLevels", Request.UrgencyLevel.values());
         model.addAttribute("selectedUrgency", urgency);
         model.addAttribute("selectedLocation", location);
@@ -0,0 +1,53 @@
+package com.sara.service;
+
+import java.util.List;
+
+public class ImportReport {
+    
+    public record RowError(long line, String message) {}
+    
+    private final long rowsRead;
+    private final long imported;
+    private final List<RowError> errors;
+    private final long errorCount;
+    private final long elapsedMillis;
+    
+    ImportReport(long rowsRead, long imported, List<RowError> errors, long errorCount, long elapsedMillis) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.errors = errors;
+        this.errorCount = errorCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public long getRowsRead() {
+        return rowsRead;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public long getFailed() {
+        return rowsRead - imported;
+    }
+    
+    /**
+     * The first errors found, in file order; {@link #getErrorCount()} has how many there were.
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    
+    public long getErrorCount() {
+        return errorCount;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000 / elapsedMillis;
+    }
+}
\ No newline at end of file
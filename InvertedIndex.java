@@ -0,0 +1,192 @@
+package com.sara.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Term -> document postings with per-document facets, used to answer ranked
+ * free-text queries without scanning the underlying table. Every query token must
+ * match a document term either exactly or as a prefix; scores are tf-idf style
+ * sums of the field-weighted term frequencies supplied by the caller.
+ */
+public class InvertedIndex<F> {
+    
+    private static final int MAX_PREFIX_EXPANSION = 64;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    
+    private final NavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Document<F>> documents = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    private record Document<F>(Map<String, Float> terms, F facets) {}
+    
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    public void put(Long id, Map<String, Float> terms, F facets) {
+        writeLock.lock();
+        try {
+            removeInternal(id);
+            documents.put(id, new Document<>(Map.copyOf(terms), facets));
+            terms.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(id, weight));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            removeInternal(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public void clear() {
+        writeLock.lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public int size() {
+        return documents.size();
+    }
+    
+    public F getFacets(Long id) {
+        Document<F> document = documents.get(id);
+        return document != null ? document.facets() : null;
+    }
+    
+    /**
+     * Returns the ids of the best matching documents, highest score first. An empty
+     * token list matches nothing; callers fall back to their plain listing queries.
+     */
+    public List<Long> search(List<String> tokens, Predicate<F> filter, int limit) {
+        return search(tokens, Collections.emptyList(), filter, limit);
+    }
+    
+    /**
+     * As {@link #search(List, Predicate, int)}, with {@code filterTokens} that every
+     * result must also match. A free-text token only looks at the first
+     * MAX_PREFIX_EXPANSION terms it is a prefix of; a filter token looks at all of
+     * them, so a filter never drops a document that has a matching term.
+     */
+    public List<Long> search(List<String> tokens, List<String> filterTokens, Predicate<F> filter, int limit) {
+        if ((tokens.isEmpty() && filterTokens.isEmpty()) || limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        List<Map<Long, Float>> perToken = new ArrayList<>(tokens.size() + filterTokens.size());
+        for (String token : tokens) {
+            Map<Long, Float> matches = match(token, MAX_PREFIX_EXPANSION);
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+            perToken.add(matches);
+        }
+        for (String token : filterTokens) {
+            Map<Long, Float> matches = match(token, Integer.MAX_VALUE);
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+            perToken.add(matches);
+        }
+        perToken.sort(Comparator.comparingInt(Map::size));
+        
+        PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        candidates:
+        for (Map.Entry<Long, Float> candidate : perToken.get(0).entrySet()) {
+            float score = candidate.getValue();
+            for (int i = 1; i < perToken.size(); i++) {
+                Float tokenScore = perToken.get(i).get(candidate.getKey());
+                if (tokenScore == null) {
+                    continue candidates;
+                }
+                score += tokenScore;
+            }
+            Document<F> document = documents.get(candidate.getKey());
+            if (document == null || (filter != null && !filter.test(document.facets()))) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(Map.entry(candidate.getKey(), score));
+            } else if (score > top.peek().getValue()) {
+                top.poll();
+                top.add(Map.entry(candidate.getKey(), score));
+            }
+        }
+        
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+    
+    private Map<Long, Float> match(String token, int maxExpansion) {
+        Map<Long, Float> scores = new HashMap<>();
+        accumulate(scores, token, postings.get(token), 1.0f);
+        
+        int expanded = 0;
+        for (Map.Entry<String, Map<Long, Float>> entry
+                : postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+            if (++expanded > maxExpansion) {
+                break;
+            }
+            accumulate(scores, entry.getKey(), entry.getValue(), PREFIX_MATCH_FACTOR);
+        }
+        return scores;
+    }
+    
+    private void accumulate(Map<Long, Float> scores, String term, Map<Long, Float> docs, float factor) {
+        if (docs == null || docs.isEmpty()) {
+            return;
+        }
+        float idf = (float) Math.log(1.0 + (double) documents.size() / docs.size());
+        docs.forEach((id, weight) -> scores.merge(id, weight * idf * factor, Math::max));
+    }
+    
+    private void removeInternal(Long id) {
+        Document<F> previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms().keySet()) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term, docs);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
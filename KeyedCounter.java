@@ -0,0 +1,74 @@
+package com.sara.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Row counts grouped by a key (status, role, ...) that can be moved incrementally as
+ * individual rows change. The last key of every row is remembered so that an update
+ * only needs the new state to shift one count from the old bucket to the new one.
+ */
+class KeyedCounter<K> {
+    
+    private final Map<Long, K> keys = new HashMap<>();
+    private final Map<K, Long> counts = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    void reset(Map<Long, K> rows) {
+        lock.lock();
+        try {
+            keys.clear();
+            counts.clear();
+            rows.forEach(this::putInternal);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    void put(Long id, K key) {
+        lock.lock();
+        try {
+            putInternal(id, key);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    void remove(Long id) {
+        lock.lock();
+        try {
+            if (keys.containsKey(id)) {
+                decrement(keys.remove(id));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    Map<K, Long> counts() {
+        lock.lock();
+        try {
+            return new HashMap<>(counts);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void putInternal(Long id, K key) {
+        boolean known = keys.containsKey(id);
+        K previous = keys.put(id, key);
+        if (known) {
+            if (Objects.equals(key, previous)) {
+                return;
+            }
+            decrement(previous);
+        }
+        counts.merge(key, 1L, Long::sum);
+    }
+    
+    private void decrement(K key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.sara.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: the sort key of that row plus its id
+ * as tie-breaker. {@code rank} is only set for orderings that lead with a rank column
+ * such as the request urgency. Encoded as an opaque URL-safe token for links.
+ */
+public record KeysetCursor(Integer rank, LocalDateTime timestamp, Long id) {
+    
+    public static KeysetCursor of(LocalDateTime timestamp, Long id) {
+        return new KeysetCursor(null, timestamp, id);
+    }
+    
+    public String encode() {
+        String raw = (rank != null ? rank.toString() : "") + "|" + timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                return null;
+            }
+            Integer rank = parts[0].isEmpty() ? null : Integer.valueOf(parts[0]);
+            return new KeysetCursor(rank, LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            // Tampered or stale links simply start again from the first page
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,277 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.VolunteerAssignment;
+import com.sara.event.EntityChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes committed request and assignment changes to open Server-Sent Events streams,
+ * so volunteer pages can patch themselves instead of polling. Payloads are snapshotted
+ * on the committing thread and left in a buffer per stream, which keeps only the latest
+ * update per request or assignment and at most {@code sara.live-feed.buffer-size} of
+ * them, dropping the oldest beyond that; a bulk import therefore costs each stream a
+ * bounded buffer, and the page is current again on its next load. A pool of
+ * {@code sara.live-feed.threads} drains the buffers, one stream at a time per thread,
+ * so a slow client only holds up itself. A stream whose write has been blocked for
+ * longer than {@code sara.live-feed.send-timeout-ms} is dropped at the next heartbeat,
+ * and at most {@code sara.live-feed.max-subscribers} streams are open at once.
+ */
+@Service
+public class LiveFeedService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LiveFeedService.class);
+    
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+    
+    private static final String KEEP_ALIVE = "keep-alive";
+    
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // At most one drain per stream is queued, so the queue is bounded by the streams
+    private final ExecutorService dispatcher;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    
+    // Rank and creation time let the page put the request where the listing's ordering has it
+    public record RequestUpdate(Long id, EntityChangeEvent.Action action, String title, String description,
+                                String location, Request.UrgencyLevel urgency, String urgencyBadgeClass,
+                                Request.RequestStatus status, Integer urgencyRank, LocalDateTime createdAt) {}
+    
+    public record AssignmentUpdate(Long id, EntityChangeEvent.Action action, Long requestId,
+                                   VolunteerAssignment.AssignmentStatus status) {}
+    
+    // An event name and payload; a null name is a keep-alive comment
+    private record Update(String name, Object payload) {}
+    
+    private static final class Subscription {
+        
+        private final SseEmitter emitter;
+        private final Request.UrgencyLevel urgency;
+        private final String location;
+        
+        // Guards pending, scheduled and closed
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Update> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+        private boolean closed;
+        // When the write in progress started, or 0 between writes
+        private volatile long sendingSince;
+        
+        private Subscription(SseEmitter emitter, Request.UrgencyLevel urgency, String location) {
+            this.emitter = emitter;
+            this.urgency = urgency;
+            this.location = location;
+        }
+        
+        boolean accepts(RequestUpdate update) {
+            return (urgency == null || urgency == update.urgency())
+                && (location == null || (update.location() != null
+                    && update.location().toLowerCase(Locale.ROOT).contains(location)));
+        }
+    }
+    
+    public LiveFeedService(@Value("${sara.live-feed.max-subscribers:500}") int maxSubscribers,
+                           @Value("${sara.live-feed.buffer-size:100}") int bufferSize,
+                           @Value("${sara.live-feed.threads:4}") int threads,
+                           @Value("${sara.live-feed.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        AtomicInteger counter = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "live-feed-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Opens a stream of request changes matching the urgency and location filters
+     * (either may be null), plus all assignment changes.
+     *
+     * @throws IllegalStateException if {@code sara.live-feed.max-subscribers} streams are open
+     */
+    public SseEmitter subscribe(Request.UrgencyLevel urgency, String location) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("Live updates are at capacity");
+        }
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        String locationFilter = (location != null && !location.isBlank()) ? location.trim().toLowerCase(Locale.ROOT) : null;
+        Subscription subscription = new Subscription(emitter, urgency, locationFilter);
+        
+        emitter.onCompletion(() -> close(subscription));
+        emitter.onTimeout(() -> close(subscription));
+        emitter.onError(e -> close(subscription));
+        subscriptions.add(subscription);
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+    
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        if (event.getEntity() instanceof Request request) {
+            RequestUpdate update = new RequestUpdate(request.getId(), event.getAction(), request.getTitle(),
+                request.getDescription(), request.getLocation(), request.getUrgency(),
+                request.getUrgency() != null ? request.getUrgencyBadgeClass() : null, request.getStatus(),
+                request.getUrgencyRank(), request.getCreatedAt());
+            Update pending = new Update("request", update);
+            for (Subscription subscription : subscriptions) {
+                if (subscription.accepts(update)) {
+                    offer(subscription, "request:" + update.id(), pending);
+                }
+            }
+        } else if (event.getEntity() instanceof VolunteerAssignment assignment) {
+            AssignmentUpdate update = new AssignmentUpdate(assignment.getId(), event.getAction(),
+                assignment.getRequest() != null ? assignment.getRequest().getId() : null, assignment.getStatus());
+            Update pending = new Update("assignment", update);
+            for (Subscription subscription : subscriptions) {
+                offer(subscription, "assignment:" + update.id(), pending);
+            }
+        }
+    }
+    
+    // Comment lines keep proxies from closing idle streams and flush out disconnected clients
+    @Scheduled(fixedRate = 25000)
+    public void heartbeat() {
+        long now = System.nanoTime();
+        Update keepAlive = new Update(null, null);
+        for (Subscription subscription : subscriptions) {
+            long since = subscription.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                // The blocked write ends with the container's write timeout; the stream is completed after it
+                evictedCount.incrementAndGet();
+                log.debug("Dropping a live feed stream whose write has been blocked for {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(now - since));
+                close(subscription);
+            } else {
+                offer(subscription, KEEP_ALIVE, keepAlive);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscriptions.forEach(s -> s.emitter.complete());
+        subscriptions.clear();
+    }
+    
+    // Replaces an older update of the same entity; a full buffer loses its oldest update
+    private void offer(Subscription subscription, String key, Update update) {
+        boolean schedule;
+        subscription.lock.lock();
+        try {
+            if (subscription.closed) {
+                return;
+            }
+            subscription.pending.remove(key);
+            subscription.pending.put(key, update);
+            if (subscription.pending.size() > bufferSize) {
+                Iterator<String> oldest = subscription.pending.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                droppedCount.incrementAndGet();
+            }
+            schedule = !subscription.scheduled;
+            subscription.scheduled = true;
+        } finally {
+            subscription.lock.unlock();
+        }
+        if (schedule) {
+            dispatcher.execute(() -> drain(subscription));
+        }
+    }
+    
+    private void drain(Subscription subscription) {
+        while (true) {
+            List<Update> updates;
+            subscription.lock.lock();
+            try {
+                if (subscription.closed || subscription.pending.isEmpty()) {
+                    subscription.scheduled = false;
+                    break;
+                }
+                updates = new ArrayList<>(subscription.pending.values());
+                subscription.pending.clear();
+            } finally {
+                subscription.lock.unlock();
+            }
+            for (Update update : updates) {
+                if (!send(subscription, update)) {
+                    return;
+                }
+            }
+        }
+        if (subscription.closed) {
+            subscription.emitter.complete();
+        }
+    }
+    
+    private boolean send(Subscription subscription, Update update) {
+        SseEmitter.SseEventBuilder event = update.name() == null
+            ? SseEmitter.event().comment(KEEP_ALIVE)
+            : SseEmitter.event().name(update.name()).data(update.payload(), MediaType.APPLICATION_JSON);
+        subscription.sendingSince = System.nanoTime();
+        try {
+            subscription.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the container completes the stream, so just stop writing to it
+            close(subscription);
+            return false;
+        } finally {
+            subscription.sendingSince = 0;
+        }
+    }
+    
+    private void close(Subscription subscription) {
+        subscription.lock.lock();
+        try {
+            subscription.closed = true;
+            subscription.pending.clear();
+        } finally {
+            subscription.lock.unlock();
+        }
+        subscriptions.remove(subscription);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,319 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.event.EntityChangeEvent;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ResourceRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Proposes AVAILABLE, verified resources for OPEN requests. Stock is indexed per
+ * {@link Resource.ResourceType}, both on a spatial grid and by region (the city and
+ * state at the end of the location), so a request only ever looks at resources of its
+ * own type nearby. Proposals are refreshed after every request write and by a periodic
+ * batch run over the whole open backlog, which picks up stock changes.
+ */
+@Service
+public class MatchingService {
+    
+    public static final int MAX_CANDIDATES = 5;
+    
+    // A request with coordinates is offered located stock within this distance, plus stock without
+    // coordinates in its region; a request without coordinates is offered any stock in its region
+    private static final double MAX_DISTANCE_KM = 250;
+    private static final double CELL_DEGREES = 0.1;
+    
+    private final ResourceRepository resourceRepository;
+    private final RequestRepository requestRepository;
+    
+    private final Map<Long, Stock> stock = new ConcurrentHashMap<>();
+    private final Map<Resource.ResourceType, GeoGridIndex<Stock>> stockByLocation = new EnumMap<>(Resource.ResourceType.class);
+    private final Map<Resource.ResourceType, Map<String, Set<Long>>> stockByRegion = new EnumMap<>(Resource.ResourceType.class);
+    private final Map<Resource.ResourceType, Map<String, Set<Long>>> unlocatedStockByRegion = new EnumMap<>(Resource.ResourceType.class);
+    private final Map<Long, List<Candidate>> proposals = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    private volatile long lastBatchMillis = -1;
+    private volatile int lastBatchSize = 0;
+    
+    record Stock(Long id, Resource.ResourceType type, int quantity, String region, Double latitude, Double longitude) {}
+    
+    record Need(Long id, Resource.ResourceType type, int quantity, Request.UrgencyLevel urgency,
+                String region, Double latitude, Double longitude) {}
+    
+    public record Candidate(Long resourceId, int allocatableQuantity, Double distanceKm, boolean coversNeed) {}
+    
+    // Resources that cover the whole need first, then the closest, then the largest stock
+    private static final Comparator<Candidate> RANKING = Comparator
+        .comparing(Candidate::coversNeed).reversed()
+        .thenComparing(Candidate::distanceKm, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Comparator.comparingInt(Candidate::allocatableQuantity).reversed())
+        .thenComparing(Candidate::resourceId);
+    
+    static final Comparator<Candidate> BY_DISTANCE = Comparator
+        .comparing(Candidate::distanceKm, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Comparator.comparingInt(Candidate::allocatableQuantity).reversed())
+        .thenComparing(Candidate::resourceId);
+    
+    public MatchingService(ResourceRepository resourceRepository, RequestRepository requestRepository) {
+        this.resourceRepository = resourceRepository;
+        this.requestRepository = requestRepository;
+        for (Resource.ResourceType type : Resource.ResourceType.values()) {
+            stockByLocation.put(type, new GeoGridIndex<>(CELL_DEGREES));
+            stockByRegion.put(type, new ConcurrentHashMap<>());
+            unlocatedStockByRegion.put(type, new ConcurrentHashMap<>());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            stock.clear();
+            stockByLocation.values().forEach(GeoGridIndex::clear);
+            stockByRegion.values().forEach(Map::clear);
+            unlocatedStockByRegion.values().forEach(Map::clear);
+            resourceRepository.findAvailableVerifiedResources().forEach(this::putStockInternal);
+        } finally {
+            writeLock.unlock();
+        }
+        rematchAll();
+    }
+    
+    /**
+     * Re-matches every OPEN request against the current stock. Reads only the columns
+     * matching needs, so the whole backlog is handled without loading entities.
+     */
+    @Scheduled(fixedDelayString = "${sara.matching.batch-interval-ms:300000}",
+               initialDelayString = "${sara.matching.batch-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void rematchAll() {
+        long started = System.currentTimeMillis();
+        Map<Long, List<Candidate>> fresh = new ConcurrentHashMap<>();
+        List<Need> needs = requestRepository.findOpenMatchKeys().stream().map(MatchingService::needOf).toList();
+        needs.parallelStream().forEach(need -> fresh.put(need.id(), match(need)));
+        
+        proposals.keySet().retainAll(fresh.keySet());
+        proposals.putAll(fresh);
+        lastBatchSize = needs.size();
+        lastBatchMillis = System.currentTimeMillis() - started;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntity() instanceof Resource resource) {
+            writeLock.lock();
+            try {
+                if (event.isDeleted() || !isMatchable(resource)) {
+                    removeStockInternal(resource.getId());
+                } else {
+                    putStockInternal(resource);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } else if (event.getEntity() instanceof Request request) {
+            if (event.isDeleted() || request.getStatus() != Request.RequestStatus.OPEN) {
+                proposals.remove(request.getId());
+            } else {
+                proposals.put(request.getId(), match(needOf(request)));
+            }
+        }
+    }
+    
+    public List<Candidate> candidatesFor(Request request) {
+        List<Candidate> candidates = proposals.get(request.getId());
+        return candidates != null ? candidates : match(needOf(request));
+    }
+    
+    /**
+     * Ranked resources proposed for the request, with the quantity each could supply.
+     * Matched against the stock as it is now rather than the last stored proposal, since
+     * a single match only touches the index.
+     */
+    @Transactional(readOnly = true)
+    public List<ResourceMatch> proposeResources(Request request) {
+        if (request.getStatus() != Request.RequestStatus.OPEN) {
+            return Collections.emptyList();
+        }
+        List<Candidate> candidates = match(needOf(request));
+        List<Long> ids = candidates.stream().map(Candidate::resourceId).toList();
+        Map<Long, Resource> resources = resourceRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Resource::getId, Function.identity()));
+        
+        return candidates.stream()
+            .filter(c -> resources.containsKey(c.resourceId()) && isMatchable(resources.get(c.resourceId())))
+            .map(c -> new ResourceMatch(resources.get(c.resourceId()), c.allocatableQuantity(), c.distanceKm()))
+            .toList();
+    }
+    
+    Stock getStock(Long resourceId) {
+        return stock.get(resourceId);
+    }
+    
+    public int getIndexedStockCount() {
+        return stock.size();
+    }
+    
+    public long getLastBatchMillis() {
+        return lastBatchMillis;
+    }
+    
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+    
+    List<Candidate> match(Need need) {
+        return match(need, RANKING, MAX_CANDIDATES);
+    }
+    
+    List<Candidate> match(Need need, Comparator<Candidate> ranking, int limit) {
+        if (need.type() == null || need.quantity() <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<Candidate> best = new PriorityQueue<>(ranking.reversed());
+        Set<Long> seen = new HashSet<>();
+        
+        boolean located = need.latitude() != null && need.longitude() != null;
+        if (located) {
+            for (GeoGridIndex.Neighbour neighbour : stockByLocation.get(need.type()).nearest(
+                    need.latitude(), need.longitude(), MAX_DISTANCE_KM, null, limit * 4)) {
+                Stock s = stock.get(neighbour.id());
+                if (s != null && seen.add(s.id())) {
+                    offer(best, candidate(need, s, neighbour.distanceKm()), ranking, limit);
+                }
+            }
+        }
+        // Located needs already saw the located stock nearby; only stock without coordinates is left
+        Map<String, Set<Long>> byRegion = (located ? unlocatedStockByRegion : stockByRegion).get(need.type());
+        Set<Long> regional = (need.region() != null) ? byRegion.get(need.region()) : null;
+        if (regional != null) {
+            for (Long id : regional) {
+                Stock s = stock.get(id);
+                if (s != null && seen.add(id)) {
+                    offer(best, candidate(need, s, distanceBetween(need, s)), ranking, limit);
+                }
+            }
+        }
+        
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        return List.copyOf(ranked);
+    }
+    
+    /**
+     * Region key of a free-text location: its last two comma separated parts, e.g.
+     * "Miami, FL 33101" becomes "miami|fl". Locations without a comma have no region.
+     */
+    static String regionOf(String location) {
+        if (location == null) {
+            return null;
+        }
+        String[] parts = location.toLowerCase(Locale.ROOT).split(",");
+        if (parts.length < 2) {
+            return null;
+        }
+        String city = parts[parts.length - 2].replaceAll("[^\\p{L} ]", "").trim();
+        String state = parts[parts.length - 1].replaceAll("[^\\p{L} ]", "").trim();
+        return (city.isEmpty() || state.isEmpty()) ? null : city + "|" + state;
+    }
+    
+    private static boolean isMatchable(Resource resource) {
+        return resource.getStatus() == Resource.ResourceStatus.AVAILABLE && resource.isVerified()
+            && resource.getType() != null && resource.getQuantity() != null && resource.getQuantity() > 0;
+    }
+    
+    private static Need needOf(Request request) {
+        return new Need(request.getId(), request.getResourceType(),
+            request.getQuantityNeeded() != null ? request.getQuantityNeeded() : 0, request.getUrgency(),
+            regionOf(request.getLocation()), request.getLatitude(), request.getLongitude());
+    }
+    
+    // Row layout of RequestRepository.findOpenMatchKeys
+    static Need needOf(Object[] row) {
+        return new Need((Long) row[0], (Resource.ResourceType) row[1],
+            row[2] != null ? (Integer) row[2] : 0, (Request.UrgencyLevel) row[6],
+            regionOf((String) row[3]), (Double) row[4], (Double) row[5]);
+    }
+    
+    private static Candidate candidate(Need need, Stock s, Double distanceKm) {
+        int allocatable = Math.min(need.quantity(), s.quantity());
+        return new Candidate(s.id(), allocatable, distanceKm, allocatable >= need.quantity());
+    }
+    
+    private static Double distanceBetween(Need need, Stock s) {
+        if (need.latitude() == null || need.longitude() == null || s.latitude() == null || s.longitude() == null) {
+            return null;
+        }
+        return GeoGridIndex.distanceKm(need.latitude(), need.longitude(), s.latitude(), s.longitude());
+    }
+    
+    private static void offer(PriorityQueue<Candidate> best, Candidate candidate,
+                              Comparator<Candidate> ranking, int limit) {
+        if (best.size() < limit) {
+            best.add(candidate);
+        } else if (ranking.compare(candidate, best.peek()) < 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+    
+    private void putStockInternal(Resource resource) {
+        removeStockInternal(resource.getId());
+        Stock s = new Stock(resource.getId(), resource.getType(), resource.getQuantity(),
+            regionOf(resource.getLocation()), resource.getLatitude(), resource.getLongitude());
+        stock.put(s.id(), s);
+        if (resource.hasCoordinates()) {
+            stockByLocation.get(s.type()).put(s.id(), s.latitude(), s.longitude(), s);
+        }
+        if (s.region() != null) {
+            stockByRegion.get(s.type()).computeIfAbsent(s.region(), r -> ConcurrentHashMap.newKeySet()).add(s.id());
+            if (!resource.hasCoordinates()) {
+                unlocatedStockByRegion.get(s.type()).computeIfAbsent(s.region(), r -> ConcurrentHashMap.newKeySet()).add(s.id());
+            }
+        }
+    }
+    
+    private void removeStockInternal(Long id) {
+        Stock previous = stock.remove(id);
+        if (previous == null) {
+            return;
+        }
+        stockByLocation.get(previous.type()).remove(id);
+        if (previous.region() != null) {
+            removeFromRegion(stockByRegion.get(previous.type()), previous.region(), id);
+            removeFromRegion(unlocatedStockByRegion.get(previous.type()), previous.region(), id);
+        }
+    }
+    
+    private static void removeFromRegion(Map<String, Set<Long>> byRegion, String region, Long id) {
+        Set<Long> ids = byRegion.get(region);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                byRegion.remove(region, ids);
+            }
+        }
+    }
+}
\ No newline at end of file
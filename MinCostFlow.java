@@ -0,0 +1,213 @@
+package com.sara.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Min-cost flow over an integer network, solved primal-dual: Dijkstra on reduced costs
+ * fixes the node potentials, then a Dinic blocking flow pushes as much as possible along
+ * every currently cheapest path at once. Negative edge costs are allowed as long as the
+ * network has no negative cycle. Augmenting stops when the cheapest remaining path no
+ * longer has negative cost, so the result is the cheapest flow, not the largest one.
+ */
+public class MinCostFlow {
+    
+    private static final long INF = Long.MAX_VALUE / 4;
+    
+    private final int nodes;
+    private int edges = 0;
+    private int[] head;
+    private int[] next = new int[16];
+    private int[] to = new int[16];
+    private long[] capacity = new long[16];
+    private long[] cost = new long[16];
+    
+    private long[] potential;
+    private long[] distance;
+    private int[] level;
+    private int[] cursor;
+    
+    public MinCostFlow(int nodes) {
+        this.nodes = nodes;
+        this.head = new int[nodes];
+        Arrays.fill(head, -1);
+    }
+    
+    /**
+     * Adds a directed edge and returns its index for {@link #flow(int)}.
+     */
+    public int addEdge(int from, int toNode, long cap, long edgeCost) {
+        ensureCapacity(edges + 2);
+        int forward = edges;
+        link(from, toNode, cap, edgeCost);
+        link(toNode, from, 0, -edgeCost);
+        return forward;
+    }
+    
+    public long flow(int edge) {
+        return capacity[edge ^ 1];
+    }
+    
+    public Result solve(int source, int sink) {
+        potential = new long[nodes];
+        distance = new long[nodes];
+        level = new int[nodes];
+        cursor = new int[nodes];
+        initialPotentials(source);
+        
+        long totalFlow = 0;
+        long totalCost = 0;
+        while (true) {
+            shortestPaths(source);
+            if (distance[sink] >= INF) {
+                break;
+            }
+            for (int v = 0; v < nodes; v++) {
+                if (distance[v] < INF) {
+                    potential[v] += distance[v];
+                }
+            }
+            long pathCost = potential[sink] - potential[source];
+            if (pathCost >= 0) {
+                break;
+            }
+            long pushed = blockingFlow(source, sink);
+            if (pushed == 0) {
+                break;
+            }
+            totalFlow += pushed;
+            totalCost += pushed * pathCost;
+        }
+        return new Result(totalFlow, totalCost);
+    }
+    
+    public record Result(long flow, long cost) {}
+    
+    // Bellman-Ford style relaxation; the networks built here are shallow so this settles in a few passes
+    private void initialPotentials(int source) {
+        Arrays.fill(potential, INF);
+        potential[source] = 0;
+        boolean[] queued = new boolean[nodes];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        queued[source] = true;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            queued[u] = false;
+            for (int e = head[u]; e != -1; e = next[e]) {
+                if (capacity[e] > 0 && potential[u] + cost[e] < potential[to[e]]) {
+                    potential[to[e]] = potential[u] + cost[e];
+                    if (!queued[to[e]]) {
+                        queued[to[e]] = true;
+                        queue.add(to[e]);
+                    }
+                }
+            }
+        }
+        for (int v = 0; v < nodes; v++) {
+            if (potential[v] >= INF) {
+                potential[v] = 0;
+            }
+        }
+    }
+    
+    private void shortestPaths(int source) {
+        Arrays.fill(distance, INF);
+        distance[source] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[] {0, source});
+        while (!queue.isEmpty()) {
+            long[] top = queue.poll();
+            int u = (int) top[1];
+            if (top[0] > distance[u]) {
+                continue;
+            }
+            for (int e = head[u]; e != -1; e = next[e]) {
+                if (capacity[e] <= 0) {
+                    continue;
+                }
+                int v = to[e];
+                long candidate = distance[u] + cost[e] + potential[u] - potential[v];
+                if (candidate < distance[v]) {
+                    distance[v] = candidate;
+                    queue.add(new long[] {candidate, v});
+                }
+            }
+        }
+    }
+    
+    // Dinic on the admissible subnetwork: residual edges whose reduced cost is zero
+    private long blockingFlow(int source, int sink) {
+        long pushed = 0;
+        while (levels(source, sink)) {
+            System.arraycopy(head, 0, cursor, 0, nodes);
+            long f;
+            while ((f = augment(source, sink, INF)) > 0) {
+                pushed += f;
+            }
+        }
+        return pushed;
+    }
+    
+    private boolean levels(int source, int sink) {
+        Arrays.fill(level, -1);
+        level[source] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int e = head[u]; e != -1; e = next[e]) {
+                int v = to[e];
+                if (level[v] < 0 && isAdmissible(u, e)) {
+                    level[v] = level[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+    
+    private long augment(int u, int sink, long limit) {
+        if (u == sink) {
+            return limit;
+        }
+        for (; cursor[u] != -1; cursor[u] = next[cursor[u]]) {
+            int e = cursor[u];
+            int v = to[e];
+            if (level[v] == level[u] + 1 && isAdmissible(u, e)) {
+                long f = augment(v, sink, Math.min(limit, capacity[e]));
+                if (f > 0) {
+                    capacity[e] -= f;
+                    capacity[e ^ 1] += f;
+                    return f;
+                }
+            }
+        }
+        return 0;
+    }
+    
+    private boolean isAdmissible(int u, int e) {
+        return capacity[e] > 0 && cost[e] + potential[u] - potential[to[e]] == 0;
+    }
+    
+    private void link(int from, int toNode, long cap, long edgeCost) {
+        to[edges] = toNode;
+        capacity[edges] = cap;
+        cost[edges] = edgeCost;
+        next[edges] = head[from];
+        head[from] = edges;
+        edges++;
+    }
+    
+    private void ensureCapacity(int required) {
+        if (required <= to.length) {
+            return;
+        }
+        int size = Math.max(required, to.length * 2);
+        next = Arrays.copyOf(next, size);
+        to = Arrays.copyOf(to, size);
+        capacity = Arrays.copyOf(capacity, size);
+        cost = Arrays.copyOf(cost, size);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,3 @@
+package com.sara.service;
+
+public record Nearby<T>(T item, double distanceKm) {}
\ No newline at end of file
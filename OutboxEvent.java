@@ -0,0 +1,109 @@
+package com.sara.entity;
+
+import com.sara.event.EntityChangeListener;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A domain event written in the same transaction as the change it describes and
+ * delivered to its handlers afterwards, so an event exists if and only if the change
+ * was committed.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_status_id", columnList = "status, id")
+})
+@EntityListeners(EntityChangeListener.class)
+public class OutboxEvent {
+    
+    @Id
+    // One value per event rather than a pooled block: the relay reads events in id order, so ids
+    // come straight from the database sequence in the order events are written. Inserts are still
+    // batched. The relay supports one application instance only; see DomainEventRelay.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+    
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+    
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+    
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    
+    @Column(name = "previous_value")
+    private String previousValue;
+    
+    @Column(name = "new_value")
+    private String newValue;
+    
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus status = DeliveryStatus.PENDING;
+    
+    private int attempts = 0;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    public enum DeliveryStatus {
+        PENDING, PROCESSED, FAILED
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public OutboxEvent() {}
+    
+    public OutboxEvent(String aggregateType, Long aggregateId, String eventType, String previousValue, String newValue) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.previousValue = previousValue;
+        this.newValue = newValue;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getAggregateType() { return aggregateType; }
+    public void setAggregateType(String aggregateType) { this.aggregateType = aggregateType; }
+    
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+    
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    
+    public String getPreviousValue() { return previousValue; }
+    public void setPreviousValue(String previousValue) { this.previousValue = previousValue; }
+    
+    public String getNewValue() { return newValue; }
+    public void setNewValue(String newValue) { this.newValue = newValue; }
+    
+    public DeliveryStatus getStatus() { return status; }
+    public void setStatus(DeliveryStatus status) { this.status = status; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+}
\ No newline at end of file
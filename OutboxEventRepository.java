@@ -0,0 +1,37 @@
+package com.sara.repository;
+
+import com.sara.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByStatusOrderByIdAsc(OutboxEvent.DeliveryStatus status, Pageable pageable);
+    long countByStatus(OutboxEvent.DeliveryStatus status);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.sara.entity.OutboxEvent.DeliveryStatus.PROCESSED, e.processedAt = :now " +
+           "WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.sara.entity.OutboxEvent.DeliveryStatus.PROCESSED " +
+           "AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+    
+    // Events that keep failing are parked as FAILED so they stop blocking their aggregate
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, " +
+           "e.status = CASE WHEN e.attempts + 1 >= :maxAttempts THEN com.sara.entity.OutboxEvent.DeliveryStatus.FAILED " +
+           "ELSE com.sara.entity.OutboxEvent.DeliveryStatus.PENDING END " +
+           "WHERE e.id IN :ids")
+    int recordFailure(@Param("ids") Collection<Long> ids, @Param("error") String error,
+                      @Param("maxAttempts") int maxAttempts);
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.sara.service;
+
+import com.sara.entity.OutboxEvent;
+import com.sara.event.DomainEvent;
+import com.sara.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes domain events to the outbox table as part of the caller's transaction and
+ * tracks their delivery for {@link DomainEventRelay}.
+ */
+@Service
+@Transactional
+public class OutboxService {
+    
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final int retentionDays;
+    
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         @Value("${sara.outbox.retention-days:7}") int retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.retentionDays = retentionDays;
+    }
+    
+    /**
+     * Records a status transition of an aggregate. Must run inside the transaction that
+     * makes the change, so the event commits or rolls back with it. A no-op transition
+     * records nothing.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(Class<?> aggregate, Long aggregateId, Enum<?> previous, Enum<?> current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        outboxEventRepository.save(new OutboxEvent(aggregate.getSimpleName(), aggregateId, STATUS_CHANGED,
+            previous != null ? previous.name() : null, current != null ? current.name() : null));
+    }
+    
+    /**
+     * {@link #recordStatusChange} for a set of aggregates moved to the same status, given
+     * each one's previous status.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanges(Class<?> aggregate, Map<Long, ? extends Enum<?>> previous, Enum<?> current) {
+        List<OutboxEvent> events = new ArrayList<>(previous.size());
+        previous.forEach((aggregateId, status) -> {
+            if (!Objects.equals(status, current)) {
+                events.add(new OutboxEvent(aggregate.getSimpleName(), aggregateId, STATUS_CHANGED,
+                    status != null ? status.name() : null, current != null ? current.name() : null));
+            }
+        });
+        outboxEventRepository.saveAll(events);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<DomainEvent> findPending(int limit) {
+        return outboxEventRepository.findByStatusOrderByIdAsc(OutboxEvent.DeliveryStatus.PENDING, PageRequest.of(0, limit))
+            .stream()
+            .map(e -> new DomainEvent(e.getId(), e.getAggregateType(), e.getAggregateId(), e.getEventType(),
+                e.getPreviousValue(), e.getNewValue(), e.getCreatedAt()))
+            .toList();
+    }
+    
+    public void markProcessed(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboxEventRepository.markProcessed(ids, LocalDateTime.now());
+        }
+    }
+    
+    /**
+     * Deletes events processed more than {@code retention-days} ago. FAILED events are
+     * kept for inspection. Run often enough that each delete only covers a short slice
+     * of the table; a retention of 0 or less keeps every event.
+     */
+    @Scheduled(fixedDelayString = "${sara.outbox.cleanup-interval-ms:3600000}",
+               initialDelayString = "${sara.outbox.cleanup-interval-ms:3600000}")
+    public int deleteProcessed() {
+        if (retentionDays <= 0) {
+            return 0;
+        }
+        return outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+    
+    public void recordFailure(Collection<Long> ids, String error, int maxAttempts) {
+        if (!ids.isEmpty()) {
+            String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            outboxEventRepository.recordFailure(ids, message, maxAttempts);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public long getPendingCount() {
+        return outboxEventRepository.countByStatus(OutboxEvent.DeliveryStatus.PENDING);
+    }
+    
+    @Transactional(readOnly = true)
+    public long getFailedCount() {
+        return outboxEventRepository.countByStatus(OutboxEvent.DeliveryStatus.FAILED);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.sara.controller;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.ui.Model;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fetches the independent parts of a page concurrently. A controller declares each
+ * model attribute with the call that loads it and a fallback; {@link Composition#fetch()}
+ * runs the calls on a shared bounded pool, each in its own read-only transaction, and
+ * waits at most {@code sara.page.deadline-ms} for all of them together. A part that is
+ * late or fails is abandoned and shows its fallback, and the page carries a warning
+ * instead of failing as a whole. The pool size also caps how many connections page
+ * fan-out can hold at once; when its queue is full the caller runs the part itself.
+ */
+@Component
+class PageComposer {
+    
+    private static final Logger log = LoggerFactory.getLogger(PageComposer.class);
+    
+    static final String DEGRADED_WARNING = "Part of this page could not be loaded in time and is shown empty.";
+    
+    private final TransactionTemplate readOnlyTransaction;
+    private final long deadlineMillis;
+    private final ThreadPoolExecutor executor;
+    
+    PageComposer(PlatformTransactionManager transactionManager,
+                 @Value("${sara.page.fetch-threads:6}") int threads,
+                 @Value("${sara.page.deadline-ms:3000}") long deadlineMillis) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.deadlineMillis = deadlineMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * 16), runnable -> {
+                Thread thread = new Thread(runnable, "page-fetch-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    Composition compose(Model model) {
+        return new Composition(model);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    final class Composition {
+        
+        private record Part<T>(String name, Supplier<T> fetch, T fallback, Consumer<T> apply) {}
+        
+        private final Model model;
+        private final List<Part<?>> parts = new ArrayList<>();
+        
+        private Composition(Model model) {
+            this.model = model;
+        }
+        
+        Composition add(String attribute, Supplier<?> fetch, Object fallback) {
+            return add(attribute, fetch, fallback, value -> model.addAttribute(attribute, value));
+        }
+        
+        /**
+         * A part whose value feeds several attributes; {@code apply} runs on the calling
+         * thread once the value, or the fallback, is known.
+         */
+        @SuppressWarnings("unchecked")
+        <T> Composition add(String name, Supplier<? extends T> fetch, T fallback, Consumer<T> apply) {
+            parts.add(new Part<>(name, (Supplier<T>) fetch, fallback, apply));
+            return this;
+        }
+        
+        void fetch() {
+            List<Future<?>> futures = new ArrayList<>(parts.size());
+            for (Part<?> part : parts) {
+                futures.add(executor.submit(() -> readOnlyTransaction.execute(status -> part.fetch().get())));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+            boolean degraded = false;
+            for (int i = 0; i < parts.size(); i++) {
+                degraded |= !complete(parts.get(i), futures.get(i), deadline);
+            }
+            if (degraded && !model.containsAttribute("warning")) {
+                model.addAttribute("warning", DEGRADED_WARNING);
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        private <T> boolean complete(Part<T> part, Future<?> future, long deadline) {
+            try {
+                part.apply().accept((T) future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                return true;
+            } catch (TimeoutException e) {
+                // Not interrupted: an interrupt inside a JDBC call can close the connection under it
+                future.cancel(false);
+                log.warn("Page part '{}' missed the {} ms deadline", part.name(), deadlineMillis);
+            } catch (ExecutionException e) {
+                log.warn("Page part '{}' failed", part.name(), e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(false);
+                Thread.currentThread().interrupt();
+            }
+            part.apply().accept(part.fallback());
+            return false;
+        }
+    }
+}
\ No newline at end of file
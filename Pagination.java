@@ -0,0 +1,47 @@
+package com.sara.controller;
+
+import com.sara.service.CursorPage;
+import com.sara.service.SearchService;
+import org.springframework.ui.Model;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import java.util.List;
+
+final class Pagination {
+    
+    static final String CURSOR_PARAM = "cursor";
+    
+    private Pagination() {}
+    
+    /**
+     * Adds the page items under {@code itemsAttribute} plus {@code nextPageUrl} and
+     * {@code firstPageUrl} links that keep the current filters of the request.
+     */
+    static void addPage(Model model, String itemsAttribute, CursorPage<?> page, String cursor) {
+        model.addAttribute(itemsAttribute, page.getItems());
+        model.addAttribute("nextPageUrl", page.hasNext() ? withCursor(page.getNextCursor()) : null);
+        model.addAttribute("firstPageUrl", (cursor != null && !cursor.isEmpty()) ? withCursor(null) : null);
+    }
+    
+    /**
+     * Adds ranked search results under {@code itemsAttribute}. Search is not paged, so
+     * when the results fill {@link SearchService#DEFAULT_LIMIT} it also adds
+     * {@code searchLimit} for the page to say that only the best matches are shown.
+     */
+    static void addSearchResults(Model model, String itemsAttribute, List<?> items) {
+        model.addAttribute(itemsAttribute, items);
+        model.addAttribute("searchLimit", items.size() >= SearchService.DEFAULT_LIMIT ? SearchService.DEFAULT_LIMIT : null);
+    }
+    
+    private static String withCursor(String cursor) {
+        String query = ServletUriComponentsBuilder.fromCurrentRequest().build().getQuery();
+        UriComponentsBuilder builder = UriComponentsBuilder.newInstance().query(query);
+        if (cursor != null) {
+            builder.replaceQueryParam(CURSOR_PARAM, cursor);
+        } else {
+            builder.replaceQueryParam(CURSOR_PARAM);
+        }
+        String newQuery = builder.build().getQuery();
+        return "?" + (newQuery != null ? newQuery : "");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+
+public record PlannedAllocation(Request request, Resource resource, long quantity, Double distanceKm) {}
\ No newline at end of file
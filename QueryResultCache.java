@@ -0,0 +1,46 @@
+package com.sara.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded least-recently-used cache of query results keyed by their filter parameters.
+ * Every entry remembers the ids it returned, so a write only drops the entries that
+ * contained the changed row or whose filter the row now passes. A load that overlaps an
+ * invalidation is returned to its caller but not stored (see {@link BoundedCache}), so a
+ * result read before a commit can never outlive that commit's invalidation.
+ */
+public class QueryResultCache<K, V> {
+    
+    private record Result<V>(V value, Set<Long> ids) {}
+    
+    private final BoundedCache<K, Result<V>> results;
+    private final Function<V, Collection<Long>> idsOf;
+    
+    public QueryResultCache(String name, int maxSize, Function<V, Collection<Long>> idsOf) {
+        this.results = BoundedCache.lru(name, maxSize, 0);
+        this.idsOf = idsOf;
+    }
+    
+    public V get(K key, Supplier<V> loader) {
+        return results.get(key, () -> {
+            V value = loader.get();
+            return new Result<>(value, Set.copyOf(idsOf.apply(value)));
+        }).value();
+    }
+    
+    /**
+     * Drops every entry that returned row {@code id} or whose key {@code admits} the
+     * row's new state.
+     */
+    public void invalidate(Long id, Predicate<K> admits) {
+        results.invalidateIf((key, result) -> result.ids().contains(id) || admits.test(key));
+    }
+    
+    public CacheStats stats() {
+        return results.stats();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.sara.config;
+
+import com.sara.service.CurrentUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control ahead of authentication. Every request falls into an endpoint class
+ * (login and registration posts, help request intake, other writes, reads; static files
+ * are exempt) and has to take a token from its client's bucket for that class, keyed by
+ * user id once signed in and by remote address before, and then from the class's global
+ * bucket where one is configured. A request without a token gets 429 with Retry-After.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding the time it will next be full (the
+ * generic cell rate algorithm), so taking a token is one compare-and-set and needs no
+ * lock. A bucket whose time has passed is full, and dropping it loses nothing; such
+ * buckets are swept every {@code sweep-interval-ms}, and at most once a second while a
+ * class holds {@code max-keys} clients. Clients that arrive while a class is full of
+ * active buckets only meet the global limit until a sweep makes room.
+ */
+class RateLimitFilter extends OncePerRequestFilter {
+    
+    // Least time between sweeps forced by a class reaching max-keys, so a flood of new clients cannot trigger one per request
+    private static final long SWEEP_BACKOFF = TimeUnit.SECONDS.toNanos(1);
+    
+    enum EndpointClass {
+        LOGIN(60, 20, 30),
+        REGISTER(20, 10, 10),
+        INTAKE(10, 5, 0),
+        WRITE(120, 40, 0),
+        READ(600, 120, 0);
+        
+        private final int perMinute;
+        private final int burst;
+        private final int globalPerSecond;
+        
+        EndpointClass(int perMinute, int burst, int globalPerSecond) {
+            this.perMinute = perMinute;
+            this.burst = burst;
+            this.globalPerSecond = globalPerSecond;
+        }
+    }
+    
+    private static final class Buckets {
+        private final long interval;
+        private final long tolerance;
+        private final long globalInterval;
+        private final long globalTolerance;
+        private final AtomicLong global;
+        private final ConcurrentHashMap<Object, AtomicLong> byClient = new ConcurrentHashMap<>();
+        
+        private Buckets(int perMinute, int burst, int globalPerSecond, long now) {
+            interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            tolerance = (Math.max(1, burst) - 1) * interval;
+            globalInterval = globalPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / globalPerSecond : 0;
+            globalTolerance = globalPerSecond > 0 ? (globalPerSecond - 1) * globalInterval : 0;
+            global = globalPerSecond > 0 ? new AtomicLong(now) : null;
+        }
+    }
+    
+    private final Map<EndpointClass, Buckets> buckets = new EnumMap<>(EndpointClass.class);
+    private final int maxKeys;
+    private final long sweepInterval;
+    private final AtomicLong nextSweep;
+    
+    RateLimitFilter(Environment environment) {
+        long now = System.nanoTime();
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            String prefix = "sara.rate-limit." + endpoint.name().toLowerCase() + ".";
+            buckets.put(endpoint, new Buckets(
+                environment.getProperty(prefix + "per-minute", Integer.class, endpoint.perMinute),
+                environment.getProperty(prefix + "burst", Integer.class, endpoint.burst),
+                environment.getProperty(prefix + "global-per-second", Integer.class, endpoint.globalPerSecond),
+                now));
+        }
+        this.maxKeys = environment.getProperty("sara.rate-limit.max-keys", Integer.class, 100_000);
+        this.sweepInterval = TimeUnit.MILLISECONDS.toNanos(
+            environment.getProperty("sara.rate-limit.sweep-interval-ms", Long.class, 60_000L));
+        this.nextSweep = new AtomicLong(now + sweepInterval);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpoint = classify(request);
+        if (endpoint != null) {
+            long wait = admit(buckets.get(endpoint), clientKey(request), System.nanoTime());
+            if (wait > 0) {
+                long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", Long.toString(seconds));
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getWriter().write("Too many requests. Please wait " + seconds + " seconds and try again.");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+    
+    private static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/images/")
+                || path.equals("/favicon.ico")) {
+            return null;
+        }
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return EndpointClass.READ;
+        }
+        return switch (path) {
+            case "/login" -> EndpointClass.LOGIN;
+            case "/register" -> EndpointClass.REGISTER;
+            case "/victim/requests" -> EndpointClass.INTAKE;
+            default -> EndpointClass.WRITE;
+        };
+    }
+    
+    // Signed in users are limited per account, wherever they connect from; everyone else per address
+    private static Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CurrentUser user) {
+            return user.getId();
+        }
+        return request.getRemoteAddr();
+    }
+    
+    // Nanoseconds until a token is free in both buckets, or 0 if one was taken from each
+    private long admit(Buckets limits, Object key, long now) {
+        AtomicLong client = limits.byClient.get(key);
+        if (client == null) {
+            long scheduled = nextSweep.get();
+            boolean due = now - scheduled >= 0;
+            boolean crowded = limits.byClient.size() >= maxKeys && now - (scheduled - sweepInterval) >= SWEEP_BACKOFF;
+            // One thread sweeps at a time, the others carry on meanwhile
+            if ((due || crowded) && nextSweep.compareAndSet(scheduled, now + sweepInterval)) {
+                sweep(now);
+            }
+            if (limits.byClient.size() < maxKeys) {
+                client = limits.byClient.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+        }
+        if (client != null) {
+            long wait = take(client, now, limits.interval, limits.tolerance);
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        return limits.global == null ? 0 : take(limits.global, now, limits.globalInterval, limits.globalTolerance);
+    }
+    
+    // Takes a token and returns 0, or returns the nanoseconds until the bucket has one
+    static long take(AtomicLong fullAt, long now, long interval, long tolerance) {
+        while (true) {
+            long current = fullAt.get();
+            long from = current - now > 0 ? current : now;
+            long wait = from - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, from + interval)) {
+                return 0;
+            }
+        }
+    }
+    
+    private void sweep(long now) {
+        for (Buckets limits : buckets.values()) {
+            limits.byClient.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+        }
+    }
+}
\ No newline at end of file
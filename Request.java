@@ -1,16 +1,25 @@
 package com.sara.entity;
 
+import com.sara.event.EntityChangeListener;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "requests")
+@Table(name = "requests", indexes = {
+    @Index(name = "idx_requests_status_urgency_created", columnList = "status, urgency, created_at"),
+    @Index(name = "idx_requests_status_rank_created", columnList = "status, urgency_rank, created_at, id"),
+    @Index(name = "idx_requests_user_created", columnList = "user_id, created_at")
+})
+@EntityListeners(EntityChangeListener.class)
 public class Request {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Request title is required")
@@ -30,10 +39,22 @@ public class Request {
     @NotBlank(message = "Location is required")
     private String location;
     
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
     @NotNull(message = "Urgency level is required")
     @Enumerated(EnumType.STRING)
     private UrgencyLevel urgency;
     
+    // Ordinal of the urgency, persisted so priority ordering and keyset paging can use an index
+    @Column(name = "urgency_rank")
+    private Integer urgencyRank;
+    
     @Enumerated(EnumType.STRING)
     private RequestStatus status = RequestStatus.OPEN;
     
@@ -50,6 +71,14 @@ public class Request {
     @Column(name = "needed_by")
     private LocalDateTime neededBy;
     
+    // Active (assigned or in progress) volunteer assignments; only moved by conditional bulk updates, never written from the entity
+    @Column(name = "volunteer_count", nullable = false, updatable = false)
+    private int volunteerCount = 0;
+    
+    // Journal entry the request was written from by the write-behind intake, so a replayed entry is written once
+    @Column(name = "intake_key", unique = true, updatable = false, length = 36)
+    private String intakeKey;
+    
     public enum UrgencyLevel {
         LOW, MEDIUM, HIGH, CRITICAL
     }
@@ -58,15 +87,20 @@ public class Request {
         OPEN, IN_PROGRESS, FULFILLED, CANCELLED
     }
     
+    // A request written behind its submission keeps the time it was submitted
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
         updatedAt = LocalDateTime.now();
+        urgencyRank = urgency != null ? urgency.ordinal() : null;
     }
     
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        urgencyRank = urgency != null ? urgency.ordinal() : null;
     }
     
     // Constructors
@@ -102,8 +136,23 @@ public class Request {
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
     
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+    
     public UrgencyLevel getUrgency() { return urgency; }
-    public void setUrgency(UrgencyLevel urgency) { this.urgency = urgency; }
+    public void setUrgency(UrgencyLevel urgency) { 
+        this.urgency = urgency; 
+        this.urgencyRank = urgency != null ? urgency.ordinal() : null;
+    }
+    
+    public Integer getUrgencyRank() { return urgencyRank; }
     
     public RequestStatus getStatus() { return status; }
     public void setStatus(RequestStatus status) { this.status = status; }
@@ -120,6 +169,11 @@ public class Request {
     public LocalDateTime getNeededBy() { return neededBy; }
     public void setNeededBy(LocalDateTime neededBy) { this.neededBy = neededBy; }
     
+    public int getVolunteerCount() { return volunteerCount; }
+    
+    public String getIntakeKey() { return intakeKey; }
+    public void setIntakeKey(String intakeKey) { this.intakeKey = intakeKey; }
+    
     public String getUrgencyBadgeClass() {
         return switch (urgency) {
             case CRITICAL -> "bg-danger";
@@ -0,0 +1,429 @@
+package com.sara.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind intake for victims' help requests, for surges where a synchronous insert
+ * per submission would compete with every page for the connection pool. With
+ * {@code sara.intake.write-behind=true} a validated submission is appended to a local
+ * journal and forced to disk, queued, and acknowledged; a single writer thread drains
+ * the queue into {@code requests} in batches of {@code sara.intake.batch-size}.
+ * <p>
+ * The queue holds at most {@code sara.intake.queue-capacity} submissions. Past that,
+ * {@link #submit} refuses new ones, so a database that cannot keep up turns into a
+ * prompt "try again" for the victim rather than unbounded memory and an unbounded
+ * delay. The journal is split into segments of about {@code sara.intake.segment-bytes};
+ * a segment is deleted once every submission in it is in the database. On startup the
+ * remaining segments are replayed, skipping submissions whose journal key is already on
+ * a request, which covers a crash between a batch's commit and its segment's deletion.
+ * A submission the database rejects outright (its user was deleted, say) is logged and
+ * dropped; any other failure keeps the batch and retries it after
+ * {@code sara.intake.retry-delay-ms}.
+ */
+@Service
+public class RequestIntakeService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RequestIntakeService.class);
+    
+    private static final String SEGMENT_PREFIX = "intake-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    // Keys looked up per query when replaying
+    private static final int REPLAY_CHUNK = 1000;
+    
+    /**
+     * One journal line: the submitted fields, the user's id, when it was submitted, which
+     * becomes the request's creation time however late it is written, and a key that is
+     * stored on the request, so a replay can tell which submissions were already written.
+     */
+    record Submission(String key, long userId, String title, String description,
+                      Resource.ResourceType resourceType, Integer quantityNeeded, String location,
+                      Double latitude, Double longitude, Request.UrgencyLevel urgency,
+                      LocalDateTime neededBy, LocalDateTime submittedAt) {}
+    
+    private record Queued(Submission submission, long segment) {}
+    
+    private final RequestService requestService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path journalDir;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long segmentBytes;
+    private final long retryDelayMs;
+    
+    // Replayed submissions may exceed the capacity; the capacity is enforced on submit
+    private final BlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "request-intake-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Guards the open segment and the pending counts
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final TreeMap<Long, Integer> pendingBySegment = new TreeMap<>();
+    private FileChannel segment;
+    private long segmentIndex;
+    
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong refusedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    
+    public RequestIntakeService(RequestService requestService, UserService userService, ObjectMapper objectMapper,
+                                @Value("${sara.intake.write-behind:false}") boolean enabled,
+                                @Value("${sara.intake.journal-dir:./data/intake}") Path journalDir,
+                                @Value("${sara.intake.queue-capacity:10000}") int queueCapacity,
+                                @Value("${sara.intake.batch-size:200}") int batchSize,
+                                @Value("${sara.intake.segment-bytes:16777216}") long segmentBytes,
+                                @Value("${sara.intake.retry-delay-ms:5000}") long retryDelayMs) {
+        this.requestService = requestService;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.journalDir = journalDir;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.segmentBytes = segmentBytes;
+        this.retryDelayMs = retryDelayMs;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Journals and queues a validated request for {@code userId}. When this returns the
+     * submission is on disk and will be written, after a crash by the next startup.
+     *
+     * @throws IllegalStateException if the queue is full or the journal cannot be written;
+     *                               nothing was recorded and the victim should submit again
+     */
+    public void submit(Request request, Long userId) {
+        Submission submission = new Submission(UUID.randomUUID().toString(), userId, request.getTitle(),
+            request.getDescription(), request.getResourceType(), request.getQuantityNeeded(), request.getLocation(),
+            request.getLatitude(), request.getLongitude(), request.getUrgency(), request.getNeededBy(),
+            LocalDateTime.now());
+        byte[] line = toLine(submission);
+        journalLock.lock();
+        try {
+            if (queue.size() >= queueCapacity) {
+                refusedCount.incrementAndGet();
+                throw new IllegalStateException("We are receiving more requests than we can record right now. " +
+                    "Your request was not saved; please submit it again in a minute.");
+            }
+            append(line);
+            pendingBySegment.merge(segmentIndex, 1, Integer::sum);
+            queue.add(new Queued(submission, segmentIndex));
+            acceptedCount.incrementAndGet();
+            if (segment.position() >= segmentBytes) {
+                rollSegment();
+            }
+        } catch (IOException e) {
+            log.error("Could not journal request intake", e);
+            throw new IllegalStateException("Your request could not be saved; please submit it again.");
+        } finally {
+            journalLock.unlock();
+        }
+    }
+    
+    public int getQueuedCount() {
+        return queue.size();
+    }
+    
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+    
+    public long getRefusedCount() {
+        return refusedCount.get();
+    }
+    
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+    
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    // Replays the journal into the queue before the first request can reach submit
+    @PostConstruct
+    void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(journalDir);
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(RequestIntakeService::isSegment).sorted().toList();
+        }
+        long nextIndex = 0;
+        for (Path file : segments) {
+            long index = segmentIndex(file);
+            nextIndex = Math.max(nextIndex, index + 1);
+            List<Submission> unwritten = new ArrayList<>();
+            List<Submission> chunk = new ArrayList<>(REPLAY_CHUNK);
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Submission submission = fromLine(file, line);
+                    if (submission != null) {
+                        chunk.add(submission);
+                    }
+                    if (chunk.size() == REPLAY_CHUNK) {
+                        unwritten.addAll(withoutWritten(chunk));
+                        chunk.clear();
+                    }
+                }
+            }
+            unwritten.addAll(withoutWritten(chunk));
+            if (unwritten.isEmpty()) {
+                Files.delete(file);
+            } else {
+                unwritten.forEach(submission -> queue.add(new Queued(submission, index)));
+                pendingBySegment.put(index, unwritten.size());
+                log.info("Replaying {} request intake submissions from {}", unwritten.size(), file.getFileName());
+            }
+        }
+        openSegment(nextIndex);
+    }
+    
+    // Batches are written through RequestService, whose entity events only have listeners once the context is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWriter() {
+        if (enabled) {
+            writer.execute(this::writeLoop);
+        }
+    }
+    
+    // Submissions still queued stay in the journal and are replayed on the next start
+    @PreDestroy
+    public void shutdown() throws IOException {
+        writer.shutdownNow();
+        journalLock.lock();
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+    
+    private void writeLoop() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (batch.isEmpty()) {
+                    Queued first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Writing {} request intake submissions failed, retrying in {} ms: {}",
+                    batch.size(), retryDelayMs, e.toString());
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+    
+    // Empties the batch as its submissions are written; whatever is left on a throw is retried
+    private void write(List<Queued> batch) {
+        Map<Long, User> users = new HashMap<>();
+        try {
+            requestService.saveRequests(batch.stream().map(queued -> toRequest(queued.submission(), users)).toList());
+            writtenCount.addAndGet(batch.size());
+            settle(batch);
+            batch.clear();
+            return;
+        } catch (DataIntegrityViolationException e) {
+            // One bad row fails the whole batch; writing the rows one at a time finds it
+        }
+        for (Iterator<Queued> it = batch.iterator(); it.hasNext(); ) {
+            Queued queued = it.next();
+            try {
+                requestService.saveRequest(toRequest(queued.submission(), users));
+                writtenCount.incrementAndGet();
+            } catch (DataIntegrityViolationException e) {
+                droppedCount.incrementAndGet();
+                log.error("Dropping request intake submission {}: {}", queued.submission().key(),
+                    e.getMostSpecificCause().getMessage());
+            }
+            settle(List.of(queued));
+            it.remove();
+        }
+    }
+    
+    private void settle(List<Queued> batch) {
+        journalLock.lock();
+        try {
+            for (Queued queued : batch) {
+                pendingBySegment.merge(queued.segment(), -1, Integer::sum);
+            }
+            // A segment can go once it is closed and all of its submissions are in the database
+            Iterator<Long> segments = pendingBySegment.keySet().iterator();
+            while (segments.hasNext()) {
+                long index = segments.next();
+                if (index == segmentIndex || pendingBySegment.get(index) > 0) {
+                    break;
+                }
+                segments.remove();
+                Files.deleteIfExists(segmentPath(index));
+            }
+        } catch (IOException e) {
+            // Harmless: replay skips submissions that are already written
+            log.warn("Could not delete a written request intake segment: {}", e.toString());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+    
+    private Request toRequest(Submission submission, Map<Long, User> users) {
+        Request request = new Request();
+        request.setTitle(submission.title());
+        request.setDescription(submission.description());
+        request.setResourceType(submission.resourceType());
+        request.setQuantityNeeded(submission.quantityNeeded());
+        request.setLocation(submission.location());
+        request.setLatitude(submission.latitude());
+        request.setLongitude(submission.longitude());
+        request.setUrgency(submission.urgency());
+        request.setNeededBy(submission.neededBy());
+        request.setUser(users.computeIfAbsent(submission.userId(), userService::getReference));
+        request.setIntakeKey(submission.key());
+        request.setCreatedAt(submission.submittedAt());
+        return request;
+    }
+    
+    private List<Submission> withoutWritten(List<Submission> submissions) {
+        if (submissions.isEmpty()) {
+            return List.of();
+        }
+        Set<String> written = requestService.findIntakeKeys(submissions.stream().map(Submission::key).toList());
+        return submissions.stream().filter(submission -> !written.contains(submission.key())).toList();
+    }
+    
+    // Cuts a failed append back off, so a torn line cannot swallow the next submission
+    private void append(byte[] line) throws IOException {
+        long start = segment.position();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segment.force(false);
+        } catch (IOException e) {
+            segment.truncate(start);
+            throw e;
+        }
+    }
+    
+    private void openSegment(long index) throws IOException {
+        segment = FileChannel.open(segmentPath(index),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentIndex = index;
+    }
+    
+    // The next segment is opened before the full one is closed, so a failed open leaves appends going to the old one
+    private void rollSegment() {
+        FileChannel full = segment;
+        try {
+            openSegment(segmentIndex + 1);
+        } catch (IOException e) {
+            log.warn("Could not open a new request intake segment, appending to the current one: {}", e.toString());
+            return;
+        }
+        try {
+            full.close();
+        } catch (IOException e) {
+            log.warn("Could not close a full request intake segment: {}", e.toString());
+        }
+    }
+    
+    private byte[] toLine(Submission submission) {
+        try {
+            return (objectMapper.writeValueAsString(submission) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // A line cut short by a crash mid-append was never acknowledged, so it is skipped
+    private Submission fromLine(Path file, String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(line, Submission.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable request intake entry in {}: {}", file.getFileName(), e.getOriginalMessage());
+            return null;
+        }
+    }
+    
+    private Path segmentPath(long index) {
+        return journalDir.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+    
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+    
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.event.EntityChangeEvent;
+import com.sara.repository.RequestRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory priority order of OPEN requests. Each request is scored by the moment it
+ * is due: the earlier of its {@code neededBy} and the end of the response window for
+ * its urgency, counted from creation. Urgency therefore shortens the window, deadlines
+ * cap it and older requests naturally move up. Because the score is an absolute point
+ * in time the order never has to be recomputed as the clock advances; only writes move
+ * an entry, in O(log n).
+ */
+@Service
+public class RequestPriorityService {
+    
+    private static final Map<Request.UrgencyLevel, Duration> RESPONSE_WINDOWS = new EnumMap<>(Map.of(
+        Request.UrgencyLevel.CRITICAL, Duration.ofHours(2),
+        Request.UrgencyLevel.HIGH, Duration.ofHours(12),
+        Request.UrgencyLevel.MEDIUM, Duration.ofDays(2),
+        Request.UrgencyLevel.LOW, Duration.ofDays(7)
+    ));
+    
+    public record Entry(LocalDateTime dueAt, Long id, Request.UrgencyLevel urgency) {}
+    
+    private static final Comparator<Entry> ORDER =
+        Comparator.comparing(Entry::dueAt).thenComparing(Entry::id);
+    
+    private final RequestRepository requestRepository;
+    
+    private final NavigableSet<Entry> queue = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Request.UrgencyLevel, NavigableSet<Entry>> queuesByUrgency = new EnumMap<>(Request.UrgencyLevel.class);
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean ready = false;
+    
+    public RequestPriorityService(RequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+        for (Request.UrgencyLevel urgency : Request.UrgencyLevel.values()) {
+            queuesByUrgency.put(urgency, new ConcurrentSkipListSet<>(ORDER));
+        }
+    }
+    
+    public static LocalDateTime dueAt(Request request) {
+        LocalDateTime created = request.getCreatedAt() != null ? request.getCreatedAt() : LocalDateTime.now();
+        Duration window = RESPONSE_WINDOWS.getOrDefault(request.getUrgency(), RESPONSE_WINDOWS.get(Request.UrgencyLevel.LOW));
+        LocalDateTime due = created.plus(window);
+        if (request.getNeededBy() != null && request.getNeededBy().isBefore(due)) {
+            due = request.getNeededBy();
+        }
+        return due;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            queue.clear();
+            queuesByUrgency.values().forEach(NavigableSet::clear);
+            entries.clear();
+            requestRepository.findByStatus(Request.RequestStatus.OPEN).forEach(this::putInternal);
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!(event.getEntity() instanceof Request request)) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (event.isDeleted() || request.getStatus() != Request.RequestStatus.OPEN) {
+                removeInternal(request.getId());
+            } else {
+                putInternal(request);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public Optional<Entry> nextMostUrgent(Request.UrgencyLevel urgency) {
+        NavigableSet<Entry> source = (urgency != null) ? queuesByUrgency.get(urgency) : queue;
+        return Optional.ofNullable(source.isEmpty() ? null : source.first());
+    }
+    
+    /**
+     * Returns up to {@code limit} entries in priority order, starting after the entry
+     * identified by {@code after} (its due time and id) when given.
+     */
+    public List<Entry> top(Request.UrgencyLevel urgency, KeysetCursor after, int limit) {
+        NavigableSet<Entry> source = (urgency != null) ? queuesByUrgency.get(urgency) : queue;
+        if (after != null) {
+            source = source.tailSet(new Entry(after.timestamp(), after.id(), null), false);
+        }
+        List<Entry> result = new ArrayList<>(limit);
+        for (Entry entry : source) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+    
+    private void putInternal(Request request) {
+        removeInternal(request.getId());
+        Entry entry = new Entry(dueAt(request), request.getId(), request.getUrgency());
+        entries.put(entry.id(), entry);
+        queue.add(entry);
+        if (entry.urgency() != null) {
+            queuesByUrgency.get(entry.urgency()).add(entry);
+        }
+    }
+    
+    private void removeInternal(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            queue.remove(previous);
+            if (previous.urgency() != null) {
+                queuesByUrgency.get(previous.urgency()).remove(previous);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -2,11 +2,22 @@ package com.sara.repository;
 
 import com.sara.entity.Request;
 import com.sara.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RequestRepository extends JpaRepository<Request, Long> {
@@ -14,18 +25,121 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findByStatus(Request.RequestStatus status);
     List<Request> findByUrgency(Request.UrgencyLevel urgency);
     
-    @Query("SELECT r FROM Request r WHERE r.status = 'OPEN' ORDER BY r.urgency DESC, r.createdAt ASC")
+    @Query("SELECT r FROM Request r WHERE r.status = 'OPEN' ORDER BY r.urgencyRank DESC, r.createdAt ASC")
     List<Request> findOpenRequestsByUrgency();
     
     @Query("SELECT r FROM Request r WHERE " +
            "(:urgency IS NULL OR r.urgency = :urgency) AND " +
-           "(:location IS NULL OR LOWER(r.location) LIKE LOWER(CONCAT('%', :location, '%'))) AND " +
            "r.status = 'OPEN'")
-    List<Request> findFilteredRequests(@Param("urgency") Request.UrgencyLevel urgency, 
-                                     @Param("location") String location);
+    List<Request> findFilteredRequests(@Param("urgency") Request.UrgencyLevel urgency);
     
     List<Request> findByUserOrderByCreatedAtDesc(User user);
     
+    List<Request> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+    
+    @Query("SELECT r.status, COUNT(r) FROM Request r WHERE r.user = :user GROUP BY r.status")
+    List<Object[]> countGroupedByStatusForUser(@Param("user") User user);
+    
     @Query("SELECT COUNT(r) FROM Request r WHERE r.status = :status")
     long countByStatus(@Param("status") Request.RequestStatus status);
+    
+    @Query("SELECT r.status, COUNT(r) FROM Request r GROUP BY r.status")
+    List<Object[]> countGroupedByStatus();
+    
+    @Query("SELECT r.id, r.status FROM Request r")
+    List<Object[]> findAllStatusKeys();
+    
+    @Query("SELECT r.id, r.resourceType, r.quantityNeeded, r.location, r.latitude, r.longitude, r.urgency " +
+           "FROM Request r WHERE r.status = 'OPEN'")
+    List<Object[]> findOpenMatchKeys();
+    
+    @Query("SELECT r FROM Request r WHERE " +
+           "(:status IS NULL OR r.status = :status) AND " +
+           "(:urgency IS NULL OR r.urgency = :urgency) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Request> findPage(@Param("status") Request.RequestStatus status,
+                           @Param("urgency") Request.UrgencyLevel urgency,
+                           Pageable pageable);
+    
+    @Query("SELECT r FROM Request r WHERE " +
+           "(:status IS NULL OR r.status = :status) AND " +
+           "(:urgency IS NULL OR r.urgency = :urgency) AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Request> findPageAfter(@Param("status") Request.RequestStatus status,
+                                @Param("urgency") Request.UrgencyLevel urgency,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+    
+    @Query("SELECT r FROM Request r WHERE r.status = 'OPEN' AND " +
+           "(:urgency IS NULL OR r.urgency = :urgency) " +
+           "ORDER BY r.urgencyRank DESC, r.createdAt ASC, r.id ASC")
+    List<Request> findOpenPageByUrgency(@Param("urgency") Request.UrgencyLevel urgency,
+                                        Pageable pageable);
+    
+    @Query("SELECT r FROM Request r WHERE r.status = 'OPEN' AND " +
+           "(:urgency IS NULL OR r.urgency = :urgency) AND " +
+           "(r.urgencyRank < :rank OR (r.urgencyRank = :rank AND " +
+           "(r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id)))) " +
+           "ORDER BY r.urgencyRank DESC, r.createdAt ASC, r.id ASC")
+    List<Request> findOpenPageByUrgencyAfter(@Param("urgency") Request.UrgencyLevel urgency,
+                                             @Param("rank") Integer rank,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+    
+    // Holds the request row lock until commit, which serialises assignments to the same request
+    @Modifying
+    @Query("UPDATE Request r SET r.volunteerCount = r.volunteerCount + 1 " +
+           "WHERE r.id = :id AND r.volunteerCount < :cap")
+    int takeVolunteerSlot(@Param("id") Long id, @Param("cap") int cap);
+    
+    @Modifying
+    @Query("UPDATE Request r SET r.volunteerCount = r.volunteerCount - 1 " +
+           "WHERE r.id = :id AND r.volunteerCount > 0")
+    int releaseVolunteerSlot(@Param("id") Long id);
+    
+    // Read from the row, not the persistence context, so it sees a status committed since the entity was loaded
+    @Query("SELECT r.status FROM Request r WHERE r.id = :id")
+    Optional<Request.RequestStatus> findStatusById(@Param("id") Long id);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Request r JOIN FETCH r.user WHERE " +
+           "(:status IS NULL OR r.status = :status) AND (:urgency IS NULL OR r.urgency = :urgency) AND " +
+           "(:from IS NULL OR r.updatedAt >= :from) AND (:to IS NULL OR r.updatedAt < :to) ORDER BY r.id")
+    Stream<Request> streamForExport(@Param("status") Request.RequestStatus status,
+                                    @Param("urgency") Request.UrgencyLevel urgency,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+    
+    // Bulk status changes: lock and read the rows that will change, then update them in one statement
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Request r WHERE r.id IN :ids AND r.status <> :status ORDER BY r.id")
+    List<Request> findForStatusChange(@Param("ids") Collection<Long> ids, @Param("status") Request.RequestStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Request r WHERE r.status = :current AND r.status <> :status AND " +
+           "(:urgency IS NULL OR r.urgency = :urgency) ORDER BY r.id")
+    List<Request> findForStatusChange(@Param("current") Request.RequestStatus current,
+                                      @Param("urgency") Request.UrgencyLevel urgency,
+                                      @Param("status") Request.RequestStatus status);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = :status, r.updatedAt = :now WHERE r.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Request.RequestStatus status,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Request r SET r.volunteerCount = r.volunteerCount + :count " +
+           "WHERE r.id = :id AND r.volunteerCount + :count <= :cap")
+    int takeVolunteerSlots(@Param("id") Long id, @Param("count") int count, @Param("cap") int cap);
+    
+    @Modifying
+    @Query("UPDATE Request r SET r.volunteerCount = CASE WHEN r.volunteerCount > :count " +
+           "THEN r.volunteerCount - :count ELSE 0 END WHERE r.id = :id")
+    int releaseVolunteerSlots(@Param("id") Long id, @Param("count") int count);
+    
+    @Query("SELECT r.intakeKey FROM Request r WHERE r.intakeKey IN :keys")
+    List<String> findIntakeKeys(@Param("keys") Collection<String> keys);
 }
\ No newline at end of file
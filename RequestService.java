@@ -3,51 +3,151 @@ package com.sara.service;
 import com.sara.entity.Request;
 import com.sara.entity.User;
 import com.sara.repository.RequestRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class RequestService {
     
     private final RequestRepository requestRepository;
-    
-    public RequestService(RequestRepository requestRepository) {
+    private final SearchService searchService;
+    private final SpatialIndexService spatialIndexService;
+    private final RequestPriorityService requestPriorityService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public RequestService(RequestRepository requestRepository, SearchService searchService,
+                         SpatialIndexService spatialIndexService, RequestPriorityService requestPriorityService,
+                         OutboxService outboxService, ApplicationEventPublisher eventPublisher) {
         this.requestRepository = requestRepository;
+        this.searchService = searchService;
+        this.spatialIndexService = spatialIndexService;
+        this.requestPriorityService = requestPriorityService;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
     }
     
     public Request saveRequest(Request request) {
         return requestRepository.save(request);
     }
     
+    public List<Request> saveRequests(List<Request> requests) {
+        return requestRepository.saveAll(requests);
+    }
+    
+    @Transactional(readOnly = true)
+    public Set<String> findIntakeKeys(Collection<String> keys) {
+        return new HashSet<>(requestRepository.findIntakeKeys(keys));
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<Request> findById(Long id) {
         return requestRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public List<Request> findAllRequests() {
         return requestRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public List<Request> findByUser(User user) {
         return requestRepository.findByUserOrderByCreatedAtDesc(user);
     }
     
+    @Transactional(readOnly = true)
     public List<Request> findOpenRequests() {
         return requestRepository.findOpenRequestsByUrgency();
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<Request> findRequestsPage(Request.RequestStatus status, Request.UrgencyLevel urgency,
+                                                String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Request> rows = (after == null)
+            ? requestRepository.findPage(status, urgency, limit)
+            : requestRepository.findPageAfter(status, urgency, after.timestamp(), after.id(), limit);
+        return CursorPage.of(rows, size, r -> KeysetCursor.of(r.getCreatedAt(), r.getId()));
+    }
+    
+    /**
+     * Open requests, most pressing first. Served from the in-memory priority index, which
+     * also weighs {@code neededBy}; until that index is built the database orders by
+     * urgency and age only.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Request> findOpenRequestsPage(Request.UrgencyLevel urgency, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (requestPriorityService.isReady()) {
+            // Cursors carrying a rank come from the database ordering and restart the list
+            List<Long> ids = requestPriorityService.top(urgency, (after != null && after.rank() == null) ? after : null, size + 1)
+                .stream().map(RequestPriorityService.Entry::id).toList();
+            Map<Long, Request> byId = requestRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Request::getId, Function.identity()));
+            List<Request> rows = ids.stream().map(byId::get).filter(r -> r != null).toList();
+            return CursorPage.of(rows, size, r -> KeysetCursor.of(RequestPriorityService.dueAt(r), r.getId()));
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Request> rows = (after == null || after.rank() == null)
+            ? requestRepository.findOpenPageByUrgency(urgency, limit)
+            : requestRepository.findOpenPageByUrgencyAfter(urgency, after.rank(), after.timestamp(), after.id(), limit);
+        return CursorPage.of(rows, size, r -> new KeysetCursor(r.getUrgencyRank(), r.getCreatedAt(), r.getId()));
+    }
+    
+    @Transactional(readOnly = true)
     public List<Request> findByStatus(Request.RequestStatus status) {
         return requestRepository.findByStatus(status);
     }
     
+    @Transactional(readOnly = true)
     public List<Request> findByUrgency(Request.UrgencyLevel urgency) {
         return requestRepository.findByUrgency(urgency);
     }
     
+    @Transactional(readOnly = true)
     public List<Request> findFilteredRequests(Request.UrgencyLevel urgency, String location) {
-        return requestRepository.findFilteredRequests(urgency, location);
+        if (location != null && !location.isBlank()) {
+            return searchService.searchOpenRequests(null, location, urgency, SearchService.DEFAULT_LIMIT);
+        }
+        return requestRepository.findFilteredRequests(urgency);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Request> searchRequests(String query, Request.UrgencyLevel urgency, String location) {
+        if (query == null || query.isBlank()) {
+            return findFilteredRequests(urgency, location);
+        }
+        return searchService.searchOpenRequests(query, location, urgency, SearchService.DEFAULT_LIMIT);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Nearby<Request>> findNearestRequests(double latitude, double longitude, Double radiusKm,
+                                                     Request.UrgencyLevel urgency) {
+        List<GeoGridIndex.Neighbour> neighbours = spatialIndexService.nearestOpenRequests(
+            latitude, longitude, radiusKm != null ? radiusKm : 0, urgency, SpatialIndexService.DEFAULT_LIMIT);
+        List<Long> ids = neighbours.stream().map(GeoGridIndex.Neighbour::id).toList();
+        Map<Long, Request> requests = requestRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Request::getId, Function.identity()));
+        
+        return neighbours.stream()
+            .filter(n -> requests.containsKey(n.id()))
+            .map(n -> new Nearby<>(requests.get(n.id()), n.distanceKm()))
+            .toList();
     }
     
     public Request updateRequest(Request request) {
@@ -62,19 +162,53 @@ public class RequestService {
         Optional<Request> requestOpt = requestRepository.findById(id);
         if (requestOpt.isPresent()) {
             Request request = requestOpt.get();
+            outboxService.recordStatusChange(Request.class, id, request.getStatus(), status);
             request.setStatus(status);
             requestRepository.save(request);
         }
     }
     
+    /**
+     * Moves the listed requests to {@code status} with one UPDATE and returns how many
+     * changed. Each change is recorded in the outbox as {@link #updateRequestStatus} does.
+     */
+    public int updateRequestStatuses(Collection<Long> ids, Request.RequestStatus status) {
+        List<Request> targets = new ArrayList<>();
+        BulkUpdate.inSlices(List.copyOf(ids), slice -> targets.addAll(requestRepository.findForStatusChange(slice, status)));
+        return changeStatus(targets, status);
+    }
+    
+    /**
+     * Moves every request in status {@code current}, optionally only of one urgency, to
+     * {@code status}.
+     */
+    public int updateRequestStatuses(Request.RequestStatus current, Request.UrgencyLevel urgency,
+                                     Request.RequestStatus status) {
+        return changeStatus(requestRepository.findForStatusChange(current, urgency, status), status);
+    }
+    
+    private int changeStatus(List<Request> targets, Request.RequestStatus status) {
+        Map<Long, Request.RequestStatus> previous = new LinkedHashMap<>();
+        targets.forEach(r -> previous.put(r.getId(), r.getStatus()));
+        List<Long> ids = List.copyOf(previous.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        BulkUpdate.inSlices(ids, slice -> requestRepository.updateStatus(slice, status, now));
+        outboxService.recordStatusChanges(Request.class, previous, status);
+        BulkUpdate.republish(requestRepository, ids, eventPublisher);
+        return ids.size();
+    }
+    
+    @Transactional(readOnly = true)
     public long getTotalRequestsCount() {
         return requestRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public long getOpenRequestsCount() {
         return requestRepository.countByStatus(Request.RequestStatus.OPEN);
     }
     
+    @Transactional(readOnly = true)
     public long getFulfilledRequestsCount() {
         return requestRepository.countByStatus(Request.RequestStatus.FULFILLED);
     }
@@ -0,0 +1,84 @@
+package com.sara.entity;
+
+import com.sara.event.EntityChangeListener;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reservations")
+@EntityListeners(EntityChangeListener.class)
+public class Reservation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "resource_id", nullable = false)
+    private Resource resource;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_id", nullable = false)
+    private Request request;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reserved_by")
+    private User reservedBy;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status = ReservationStatus.ACTIVE;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+    
+    public enum ReservationStatus {
+        ACTIVE, RELEASED
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public Reservation() {}
+    
+    public Reservation(Resource resource, Request request, User reservedBy, Integer quantity) {
+        this.resource = resource;
+        this.request = request;
+        this.reservedBy = reservedBy;
+        this.quantity = quantity;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Resource getResource() { return resource; }
+    public void setResource(Resource resource) { this.resource = resource; }
+    
+    public Request getRequest() { return request; }
+    public void setRequest(Request request) { this.request = request; }
+    
+    public User getReservedBy() { return reservedBy; }
+    public void setReservedBy(User reservedBy) { this.reservedBy = reservedBy; }
+    
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    
+    public ReservationStatus getStatus() { return status; }
+    public void setStatus(ReservationStatus status) { this.status = status; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getReleasedAt() { return releasedAt; }
+    public void setReleasedAt(LocalDateTime releasedAt) { this.releasedAt = releasedAt; }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.sara.repository;
+
+import com.sara.entity.Request;
+import com.sara.entity.Reservation;
+import com.sara.entity.Resource;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    @EntityGraph(attributePaths = "resource")
+    List<Reservation> findByRequestOrderByCreatedAtDesc(Request request);
+    
+    @EntityGraph(attributePaths = "request")
+    List<Reservation> findByResourceOrderByCreatedAtDesc(Resource resource);
+    
+    List<Reservation> findByRequestIdAndStatus(Long requestId, Reservation.ReservationStatus status);
+    
+    @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM Reservation r WHERE r.request = :request AND r.status = 'ACTIVE'")
+    long sumActiveQuantityByRequest(@Param("request") Request request);
+    
+    // Only the caller that flips ACTIVE to RELEASED may return the quantity to the resource
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = com.sara.entity.Reservation.ReservationStatus.RELEASED, r.releasedAt = :now " +
+           "WHERE r.id = :id AND r.status = com.sara.entity.Reservation.ReservationStatus.ACTIVE")
+    int markReleased(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Reservation;
+import com.sara.entity.Resource;
+import com.sara.entity.User;
+import com.sara.event.EntityChangeEvent;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ReservationRepository;
+import com.sara.repository.ResourceRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Partial reservations of resource stock against requests. Stock is taken and returned
+ * with single conditional UPDATEs instead of read-modify-save, so concurrent
+ * coordinators queue on the row lock and can neither oversell a resource nor overwrite
+ * each other; there is nothing to retry. Bulk updates bypass the entity callbacks, so
+ * the change is republished for the in-memory indexes by hand.
+ */
+@Service
+@Transactional
+public class ReservationService {
+    
+    private final ReservationRepository reservationRepository;
+    private final ResourceRepository resourceRepository;
+    private final RequestRepository requestRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public ReservationService(ReservationRepository reservationRepository, ResourceRepository resourceRepository,
+                              RequestRepository requestRepository, ApplicationEventPublisher eventPublisher) {
+        this.reservationRepository = reservationRepository;
+        this.resourceRepository = resourceRepository;
+        this.requestRepository = requestRepository;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    public Reservation reserve(Long resourceId, Long requestId, int quantity, User reservedBy) {
+        if (quantity <= 0) {
+            throw new IllegalStateException("Quantity to reserve must be positive");
+        }
+        Optional<Request> request = requestRepository.findById(requestId);
+        if (request.isEmpty() || (request.get().getStatus() != Request.RequestStatus.OPEN
+                && request.get().getStatus() != Request.RequestStatus.IN_PROGRESS)) {
+            throw new IllegalStateException("Request is no longer open");
+        }
+        
+        if (resourceRepository.takeQuantity(resourceId, quantity, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Not enough verified quantity available on this resource");
+        }
+        Resource resource = resourceRepository.findById(resourceId).orElseThrow();
+        Reservation reservation = reservationRepository.save(
+            new Reservation(resource, request.get(), reservedBy, quantity));
+        eventPublisher.publishEvent(new EntityChangeEvent(resource, EntityChangeEvent.Action.UPDATED));
+        return reservation;
+    }
+    
+    /**
+     * Releases an active reservation and returns its quantity to the resource. Returns
+     * false if the reservation does not exist or was already released.
+     */
+    public boolean release(Long reservationId) {
+        Optional<Reservation> reservationOpt = reservationRepository.findById(reservationId);
+        if (reservationOpt.isEmpty()) {
+            return false;
+        }
+        Long resourceId = reservationOpt.get().getResource().getId();
+        int quantity = reservationOpt.get().getQuantity();
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (reservationRepository.markReleased(reservationId, now) == 0) {
+            return false;
+        }
+        resourceRepository.returnQuantity(resourceId, quantity, now);
+        resourceRepository.findById(resourceId).ifPresent(resource ->
+            eventPublisher.publishEvent(new EntityChangeEvent(resource, EntityChangeEvent.Action.UPDATED)));
+        return true;
+    }
+    
+    /**
+     * Releases every active reservation of a request and returns how many were released.
+     * Safe to repeat: reservations that are already released are skipped.
+     */
+    public int releaseAllForRequest(Long requestId) {
+        int released = 0;
+        for (Reservation reservation : reservationRepository.findByRequestIdAndStatus(
+                requestId, Reservation.ReservationStatus.ACTIVE)) {
+            if (release(reservation.getId())) {
+                released++;
+            }
+        }
+        return released;
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<Reservation> findById(Long id) {
+        return reservationRepository.findById(id);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Reservation> findByRequest(Request request) {
+        return reservationRepository.findByRequestOrderByCreatedAtDesc(request);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Reservation> findByResource(Resource resource) {
+        return reservationRepository.findByResourceOrderByCreatedAtDesc(resource);
+    }
+    
+    @Transactional(readOnly = true)
+    public long getReservedQuantity(Request request) {
+        return reservationRepository.sumActiveQuantityByRequest(request);
+    }
+}
\ No newline at end of file
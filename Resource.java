@@ -1,16 +1,24 @@
 package com.sara.entity;
 
+import com.sara.event.EntityChangeListener;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "resources")
+@Table(name = "resources", indexes = {
+    @Index(name = "idx_resources_status_verified", columnList = "status, verified"),
+    @Index(name = "idx_resources_user_created", columnList = "user_id, created_at")
+})
+@EntityListeners(EntityChangeListener.class)
 public class Resource {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resources_seq")
+    @SequenceGenerator(name = "resources_seq", sequenceName = "resources_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Resource name is required")
@@ -23,12 +31,21 @@ public class Resource {
     private ResourceType type;
     
     @NotNull(message = "Quantity is required")
-    @Positive(message = "Quantity must be positive")
+    // Quantity still available; reservations take it down and a fully reserved resource holds zero
+    @PositiveOrZero(message = "Quantity cannot be negative")
     private Integer quantity;
     
     @NotBlank(message = "Location is required")
     private String location;
     
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
     @NotBlank(message = "Contact information is required")
     private String contactInfo;
     
@@ -47,6 +64,9 @@ public class Resource {
     
     private boolean verified = false;
     
+    @Version
+    private Long version;
+    
     public enum ResourceType {
         FOOD, WATER, SHELTER, MEDICINE, CLOTHING, BLANKETS, FIRST_AID, TOOLS, OTHER
     }
@@ -99,6 +119,16 @@ public class Resource {
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
     
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+    
     public String getContactInfo() { return contactInfo; }
     public void setContactInfo(String contactInfo) { this.contactInfo = contactInfo; }
     
@@ -116,4 +146,7 @@ public class Resource {
     
     public boolean isVerified() { return verified; }
     public void setVerified(boolean verified) { this.verified = verified; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
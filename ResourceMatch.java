@@ -0,0 +1,5 @@
+package com.sara.service;
+
+import com.sara.entity.Resource;
+
+public record ResourceMatch(Resource resource, int allocatableQuantity, Double distanceKm) {}
\ No newline at end of file
@@ -2,11 +2,21 @@ package com.sara.repository;
 
 import com.sara.entity.Resource;
 import com.sara.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ResourceRepository extends JpaRepository<Resource, Long> {
@@ -14,16 +24,105 @@ public interface ResourceRepository extends JpaRepository<Resource, Long> {
     List<Resource> findByStatus(Resource.ResourceStatus status);
     List<Resource> findByType(Resource.ResourceType type);
     List<Resource> findByVerifiedTrue();
+    long countByStatus(Resource.ResourceStatus status);
+    long countByVerifiedTrue();
     
     @Query("SELECT r FROM Resource r WHERE r.status = 'AVAILABLE' AND r.verified = true")
     List<Resource> findAvailableVerifiedResources();
     
     @Query("SELECT r FROM Resource r WHERE " +
            "(:type IS NULL OR r.type = :type) AND " +
-           "(:location IS NULL OR LOWER(r.location) LIKE LOWER(CONCAT('%', :location, '%'))) AND " +
            "r.status = 'AVAILABLE' AND r.verified = true")
-    List<Resource> findFilteredResources(@Param("type") Resource.ResourceType type, 
-                                       @Param("location") String location);
+    List<Resource> findFilteredResources(@Param("type") Resource.ResourceType type);
     
     List<Resource> findByUserOrderByCreatedAtDesc(User user);
+    
+    List<Resource> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+    
+    @Query("SELECT r.status, COUNT(r) FROM Resource r WHERE r.user = :user GROUP BY r.status")
+    List<Object[]> countGroupedByStatusForUser(@Param("user") User user);
+    
+    @Query("SELECT r.status, r.verified, COUNT(r) FROM Resource r GROUP BY r.status, r.verified")
+    List<Object[]> countGroupedByStatusAndVerified();
+    
+    @Query("SELECT r.id, r.status, r.verified FROM Resource r")
+    List<Object[]> findAllStatusKeys();
+    
+    @Query("SELECT r FROM Resource r WHERE " +
+           "(:type IS NULL OR r.type = :type) AND " +
+           "(:status IS NULL OR r.status = :status) AND " +
+           "(:verified IS NULL OR r.verified = :verified) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Resource> findPage(@Param("type") Resource.ResourceType type,
+                            @Param("status") Resource.ResourceStatus status,
+                            @Param("verified") Boolean verified,
+                            Pageable pageable);
+    
+    @Query("SELECT r FROM Resource r WHERE " +
+           "(:type IS NULL OR r.type = :type) AND " +
+           "(:status IS NULL OR r.status = :status) AND " +
+           "(:verified IS NULL OR r.verified = :verified) AND " +
+           "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Resource> findPageAfter(@Param("type") Resource.ResourceType type,
+                                 @Param("status") Resource.ResourceStatus status,
+                                 @Param("verified") Boolean verified,
+                                 @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+    
+    // Single conditional statement, so concurrent reservations serialise on the row lock and never oversell.
+    // Unverified stock is not listed, so it cannot be reserved by id either.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Resource r SET r.quantity = r.quantity - :quantity, " +
+           "r.status = CASE WHEN r.quantity = :quantity THEN com.sara.entity.Resource.ResourceStatus.RESERVED ELSE r.status END, " +
+           "r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.status = com.sara.entity.Resource.ResourceStatus.AVAILABLE AND r.verified = true " +
+           "AND r.quantity >= :quantity")
+    int takeQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    // Only a resource a reservation emptied goes back to AVAILABLE; RESERVED set by hand on remaining stock stays
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Resource r SET r.quantity = r.quantity + :quantity, " +
+           "r.status = CASE WHEN r.status = com.sara.entity.Resource.ResourceStatus.RESERVED AND r.quantity = 0 " +
+           "THEN com.sara.entity.Resource.ResourceStatus.AVAILABLE ELSE r.status END, " +
+           "r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id = :id")
+    int returnQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Resource r JOIN FETCH r.user WHERE " +
+           "(:type IS NULL OR r.type = :type) AND (:status IS NULL OR r.status = :status) AND " +
+           "(:from IS NULL OR r.updatedAt >= :from) AND (:to IS NULL OR r.updatedAt < :to) ORDER BY r.id")
+    Stream<Resource> streamForExport(@Param("type") Resource.ResourceType type,
+                                     @Param("status") Resource.ResourceStatus status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+    
+    // Bulk changes: lock and read the rows that will change, then update them in one statement
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Resource r WHERE r.id IN :ids AND r.status <> :status ORDER BY r.id")
+    List<Resource> findForStatusChange(@Param("ids") Collection<Long> ids, @Param("status") Resource.ResourceStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Resource r WHERE r.status = :current AND r.status <> :status AND " +
+           "(:type IS NULL OR r.type = :type) ORDER BY r.id")
+    List<Resource> findForStatusChange(@Param("current") Resource.ResourceStatus current,
+                                       @Param("type") Resource.ResourceType type,
+                                       @Param("status") Resource.ResourceStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Resource r WHERE r.id IN :ids AND r.verified = false ORDER BY r.id")
+    List<Resource> findForVerification(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Resource r SET r.status = :status, r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Resource.ResourceStatus status,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Resource r SET r.verified = true, r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id IN :ids")
+    int markVerified(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -3,55 +3,133 @@ package com.sara.service;
 import com.sara.entity.Resource;
 import com.sara.entity.User;
 import com.sara.repository.ResourceRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ResourceService {
     
     private final ResourceRepository resourceRepository;
-    
-    public ResourceService(ResourceRepository resourceRepository) {
+    private final SearchService searchService;
+    private final SpatialIndexService spatialIndexService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public ResourceService(ResourceRepository resourceRepository, SearchService searchService,
+                          SpatialIndexService spatialIndexService, OutboxService outboxService,
+                          ApplicationEventPublisher eventPublisher) {
         this.resourceRepository = resourceRepository;
+        this.searchService = searchService;
+        this.spatialIndexService = spatialIndexService;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
     }
     
     public Resource saveResource(Resource resource) {
         return resourceRepository.save(resource);
     }
     
+    public List<Resource> saveResources(List<Resource> resources) {
+        return resourceRepository.saveAll(resources);
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<Resource> findById(Long id) {
         return resourceRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public List<Resource> findAllResources() {
         return resourceRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public List<Resource> findByUser(User user) {
         return resourceRepository.findByUserOrderByCreatedAtDesc(user);
     }
     
+    @Transactional(readOnly = true)
     public List<Resource> findAvailableResources() {
         return resourceRepository.findAvailableVerifiedResources();
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<Resource> findResourcesPage(Resource.ResourceType type, Resource.ResourceStatus status,
+                                                  String cursor, int size) {
+        return findPage(type, status, null, cursor, size);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<Resource> findAvailableResourcesPage(Resource.ResourceType type, String cursor, int size) {
+        return findPage(type, Resource.ResourceStatus.AVAILABLE, true, cursor, size);
+    }
+    
+    private CursorPage<Resource> findPage(Resource.ResourceType type, Resource.ResourceStatus status,
+                                          Boolean verified, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Resource> rows = (after == null)
+            ? resourceRepository.findPage(type, status, verified, limit)
+            : resourceRepository.findPageAfter(type, status, verified, after.timestamp(), after.id(), limit);
+        return CursorPage.of(rows, size, r -> KeysetCursor.of(r.getCreatedAt(), r.getId()));
+    }
+    
+    @Transactional(readOnly = true)
     public List<Resource> findByType(Resource.ResourceType type) {
         return resourceRepository.findByType(type);
     }
     
+    @Transactional(readOnly = true)
     public List<Resource> findByStatus(Resource.ResourceStatus status) {
         return resourceRepository.findByStatus(status);
     }
     
+    @Transactional(readOnly = true)
     public List<Resource> findVerifiedResources() {
         return resourceRepository.findByVerifiedTrue();
     }
     
+    @Transactional(readOnly = true)
     public List<Resource> findFilteredResources(Resource.ResourceType type, String location) {
-        return resourceRepository.findFilteredResources(type, location);
+        if (location != null && !location.isBlank()) {
+            return searchService.searchAvailableResources(null, location, type, SearchService.DEFAULT_LIMIT);
+        }
+        return resourceRepository.findFilteredResources(type);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Resource> searchResources(String query, Resource.ResourceType type, String location) {
+        if (query == null || query.isBlank()) {
+            return findFilteredResources(type, location);
+        }
+        return searchService.searchAvailableResources(query, location, type, SearchService.DEFAULT_LIMIT);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Nearby<Resource>> findNearestResources(double latitude, double longitude, Double radiusKm,
+                                                       Resource.ResourceType type) {
+        List<GeoGridIndex.Neighbour> neighbours = spatialIndexService.nearestAvailableResources(
+            latitude, longitude, radiusKm != null ? radiusKm : 0, type, SpatialIndexService.DEFAULT_LIMIT);
+        List<Long> ids = neighbours.stream().map(GeoGridIndex.Neighbour::id).toList();
+        Map<Long, Resource> resources = resourceRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Resource::getId, Function.identity()));
+        
+        return neighbours.stream()
+            .filter(n -> resources.containsKey(n.id()))
+            .map(n -> new Nearby<>(resources.get(n.id()), n.distanceKm()))
+            .toList();
     }
     
     public Resource updateResource(Resource resource) {
@@ -75,16 +153,68 @@ public class ResourceService {
         Optional<Resource> resourceOpt = resourceRepository.findById(id);
         if (resourceOpt.isPresent()) {
             Resource resource = resourceOpt.get();
+            outboxService.recordStatusChange(Resource.class, id, resource.getStatus(), status);
             resource.setStatus(status);
             resourceRepository.save(resource);
         }
     }
     
+    /**
+     * Verifies the listed resources with one UPDATE and returns how many were not
+     * verified before.
+     */
+    public int verifyResources(Collection<Long> ids) {
+        List<Long> changed = new ArrayList<>();
+        BulkUpdate.inSlices(List.copyOf(ids), slice ->
+            resourceRepository.findForVerification(slice).forEach(r -> changed.add(r.getId())));
+        LocalDateTime now = LocalDateTime.now();
+        BulkUpdate.inSlices(changed, slice -> resourceRepository.markVerified(slice, now));
+        BulkUpdate.republish(resourceRepository, changed, eventPublisher);
+        return changed.size();
+    }
+    
+    /**
+     * Moves the listed resources to {@code status} with one UPDATE and returns how many
+     * changed. Each change is recorded in the outbox as {@link #updateResourceStatus} does.
+     */
+    public int updateResourceStatuses(Collection<Long> ids, Resource.ResourceStatus status) {
+        List<Resource> targets = new ArrayList<>();
+        BulkUpdate.inSlices(List.copyOf(ids), slice -> targets.addAll(resourceRepository.findForStatusChange(slice, status)));
+        return changeStatus(targets, status);
+    }
+    
+    /**
+     * Moves every resource in status {@code current}, optionally only of one type, to
+     * {@code status}.
+     */
+    public int updateResourceStatuses(Resource.ResourceStatus current, Resource.ResourceType type,
+                                      Resource.ResourceStatus status) {
+        return changeStatus(resourceRepository.findForStatusChange(current, type, status), status);
+    }
+    
+    private int changeStatus(List<Resource> targets, Resource.ResourceStatus status) {
+        Map<Long, Resource.ResourceStatus> previous = new LinkedHashMap<>();
+        targets.forEach(r -> previous.put(r.getId(), r.getStatus()));
+        List<Long> ids = List.copyOf(previous.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        BulkUpdate.inSlices(ids, slice -> resourceRepository.updateStatus(slice, status, now));
+        outboxService.recordStatusChanges(Resource.class, previous, status);
+        BulkUpdate.republish(resourceRepository, ids, eventPublisher);
+        return ids.size();
+    }
+    
+    @Transactional(readOnly = true)
     public long getTotalResourcesCount() {
         return resourceRepository.count();
     }
     
+    @Transactional(readOnly = true)
+    public long getVerifiedResourcesCount() {
+        return resourceRepository.countByVerifiedTrue();
+    }
+    
+    @Transactional(readOnly = true)
     public long getAvailableResourcesCount() {
-        return resourceRepository.findByStatus(Resource.ResourceStatus.AVAILABLE).size();
+        return resourceRepository.countByStatus(Resource.ResourceStatus.AVAILABLE);
     }
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package com.sara;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SaraApplication {
     public static void main(String[] args) {
         SpringApplication.run(SaraApplication.class, args);
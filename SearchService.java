@@ -0,0 +1,143 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.event.EntityChangeEvent;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ResourceRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SearchService {
+    
+    public static final int DEFAULT_LIMIT = 200;
+    
+    // Location terms are also indexed under this prefix so a location filter only matches locations
+    private static final String LOCATION_PREFIX = "@";
+    
+    private final ResourceRepository resourceRepository;
+    private final RequestRepository requestRepository;
+    
+    private final InvertedIndex<ResourceFacets> resourceIndex = new InvertedIndex<>();
+    private final InvertedIndex<RequestFacets> requestIndex = new InvertedIndex<>();
+    
+    record ResourceFacets(Resource.ResourceType type, Resource.ResourceStatus status, boolean verified) {}
+    
+    record RequestFacets(Request.UrgencyLevel urgency, Request.RequestStatus status) {}
+    
+    public SearchService(ResourceRepository resourceRepository, RequestRepository requestRepository) {
+        this.resourceRepository = resourceRepository;
+        this.requestRepository = requestRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndexes() {
+        resourceIndex.clear();
+        requestIndex.clear();
+        resourceRepository.findAll().forEach(this::indexResource);
+        requestRepository.findAll().forEach(this::indexRequest);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntity() instanceof Resource resource) {
+            if (event.isDeleted()) {
+                resourceIndex.remove(resource.getId());
+            } else {
+                indexResource(resource);
+            }
+        } else if (event.getEntity() instanceof Request request) {
+            if (event.isDeleted()) {
+                requestIndex.remove(request.getId());
+            } else {
+                indexRequest(request);
+            }
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Resource> searchAvailableResources(String query, String location,
+                                                   Resource.ResourceType type, int limit) {
+        List<Long> ids = resourceIndex.search(InvertedIndex.tokenize(query), locationTokens(location),
+            f -> f.status() == Resource.ResourceStatus.AVAILABLE && f.verified()
+                && (type == null || f.type() == type),
+            limit);
+        return inRankOrder(ids, resourceRepository.findAllById(ids), Resource::getId);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Request> searchOpenRequests(String query, String location,
+                                            Request.UrgencyLevel urgency, int limit) {
+        List<Long> ids = requestIndex.search(InvertedIndex.tokenize(query), locationTokens(location),
+            f -> f.status() == Request.RequestStatus.OPEN
+                && (urgency == null || f.urgency() == urgency),
+            limit);
+        return inRankOrder(ids, requestRepository.findAllById(ids), Request::getId);
+    }
+    
+    public int getIndexedResourcesCount() {
+        return resourceIndex.size();
+    }
+    
+    public int getIndexedRequestsCount() {
+        return requestIndex.size();
+    }
+    
+    private void indexResource(Resource resource) {
+        resourceIndex.put(resource.getId(),
+            terms(resource.getName(), resource.getLocation(), resource.getDescription()),
+            new ResourceFacets(resource.getType(), resource.getStatus(), resource.isVerified()));
+    }
+    
+    private void indexRequest(Request request) {
+        requestIndex.put(request.getId(),
+            terms(request.getTitle(), request.getLocation(), request.getDescription()),
+            new RequestFacets(request.getUrgency(), request.getStatus()));
+    }
+    
+    private static Map<String, Float> terms(String title, String location, String description) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, title, "", 3.0f);
+        addTerms(terms, location, "", 2.0f);
+        addTerms(terms, location, LOCATION_PREFIX, 1.0f);
+        addTerms(terms, description, "", 1.0f);
+        return terms;
+    }
+    
+    private static void addTerms(Map<String, Float> terms, String text, String prefix, float weight) {
+        for (String token : InvertedIndex.tokenize(text)) {
+            terms.merge(prefix + token, weight, Float::sum);
+        }
+    }
+    
+    private static List<String> locationTokens(String location) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : InvertedIndex.tokenize(location)) {
+            tokens.add(LOCATION_PREFIX + token);
+        }
+        return tokens;
+    }
+    
+    private static <T> List<T> inRankOrder(List<Long> ids, List<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.event.EntityChangeEvent;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ResourceRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.List;
+
+@Service
+public class SpatialIndexService {
+    
+    public static final int DEFAULT_LIMIT = 50;
+    
+    // 0.1 degree cells are roughly 11 km across, about the size of a relief district
+    private static final double CELL_DEGREES = 0.1;
+    
+    private final ResourceRepository resourceRepository;
+    private final RequestRepository requestRepository;
+    
+    private final GeoGridIndex<ResourceFacets> resourceIndex = new GeoGridIndex<>(CELL_DEGREES);
+    private final GeoGridIndex<RequestFacets> requestIndex = new GeoGridIndex<>(CELL_DEGREES);
+    
+    record ResourceFacets(Resource.ResourceType type, Resource.ResourceStatus status, boolean verified) {}
+    
+    record RequestFacets(Request.UrgencyLevel urgency, Request.RequestStatus status) {}
+    
+    public SpatialIndexService(ResourceRepository resourceRepository, RequestRepository requestRepository) {
+        this.resourceRepository = resourceRepository;
+        this.requestRepository = requestRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndexes() {
+        resourceIndex.clear();
+        requestIndex.clear();
+        resourceRepository.findAll().forEach(this::indexResource);
+        requestRepository.findAll().forEach(this::indexRequest);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntity() instanceof Resource resource) {
+            if (event.isDeleted()) {
+                resourceIndex.remove(resource.getId());
+            } else {
+                indexResource(resource);
+            }
+        } else if (event.getEntity() instanceof Request request) {
+            if (event.isDeleted()) {
+                requestIndex.remove(request.getId());
+            } else {
+                indexRequest(request);
+            }
+        }
+    }
+    
+    public List<GeoGridIndex.Neighbour> nearestAvailableResources(double latitude, double longitude,
+                                                                 double radiusKm, Resource.ResourceType type,
+                                                                 int limit) {
+        return resourceIndex.nearest(latitude, longitude, radiusKm,
+            f -> f.status() == Resource.ResourceStatus.AVAILABLE && f.verified()
+                && (type == null || f.type() == type),
+            limit);
+    }
+    
+    public List<GeoGridIndex.Neighbour> nearestOpenRequests(double latitude, double longitude,
+                                                           double radiusKm, Request.UrgencyLevel urgency,
+                                                           int limit) {
+        return requestIndex.nearest(latitude, longitude, radiusKm,
+            f -> f.status() == Request.RequestStatus.OPEN
+                && (urgency == null || f.urgency() == urgency),
+            limit);
+    }
+    
+    private void indexResource(Resource resource) {
+        if (!resource.hasCoordinates()) {
+            resourceIndex.remove(resource.getId());
+            return;
+        }
+        resourceIndex.put(resource.getId(), resource.getLatitude(), resource.getLongitude(),
+            new ResourceFacets(resource.getType(), resource.getStatus(), resource.isVerified()));
+    }
+    
+    private void indexRequest(Request request) {
+        if (!request.hasCoordinates()) {
+            requestIndex.remove(request.getId());
+            return;
+        }
+        requestIndex.put(request.getId(), request.getLatitude(), request.getLongitude(),
+            new RequestFacets(request.getUrgency(), request.getStatus()));
+    }
+}
\ No newline at end of file
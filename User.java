@@ -1,5 +1,6 @@
 package com.sara.entity;
 
+import com.sara.event.EntityChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -9,9 +10,11 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(EntityChangeListener.class)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Username is required")
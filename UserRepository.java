@@ -1,8 +1,12 @@
 package com.sara.repository;
 
 import com.sara.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +18,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByEnabledTrue();
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    long countByRole(User.UserRole role);
+    
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countGroupedByRole();
+    
+    @Query("SELECT u.id, u.role FROM User u")
+    List<Object[]> findAllRoleKeys();
+    
+    @Query("SELECT u FROM User u WHERE (:role IS NULL OR u.role = :role) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findPage(@Param("role") User.UserRole role, Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE (:role IS NULL OR u.role = :role) AND " +
+           "(u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id)) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findPageAfter(@Param("role") User.UserRole role,
+                             @Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") Long id,
+                             Pageable pageable);
 }
\ No newline at end of file
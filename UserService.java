@@ -2,8 +2,10 @@ package com.sara.service;
 
 import com.sara.entity.User;
 import com.sara.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
@@ -20,39 +22,67 @@ public class UserService {
         this.passwordEncoder = passwordEncoder;
     }
     
+    // Hashes before the repository opens its transaction, so no connection is held for the BCrypt work
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User saveUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         return userRepository.save(user);
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
     
+    /**
+     * A reference to the user row for use as an association or query parameter,
+     * without loading it.
+     */
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public List<User> findAllUsers() {
         return userRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<User> findUsersPage(User.UserRole role, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<User> rows = (after == null)
+            ? userRepository.findPage(role, limit)
+            : userRepository.findPageAfter(role, after.timestamp(), after.id(), limit);
+        return CursorPage.of(rows, size, u -> KeysetCursor.of(u.getCreatedAt(), u.getId()));
+    }
+    
+    @Transactional(readOnly = true)
     public List<User> findByRole(User.UserRole role) {
         return userRepository.findByRole(role);
     }
     
+    @Transactional(readOnly = true)
     public List<User> findActiveUsers() {
         return userRepository.findByEnabledTrue();
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
@@ -74,11 +104,13 @@ public class UserService {
         }
     }
     
+    @Transactional(readOnly = true)
     public long getTotalUsersCount() {
         return userRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public long getUsersCountByRole(User.UserRole role) {
-        return userRepository.findByRole(role).size();
+        return userRepository.countByRole(role);
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.sara.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a donor, victim or volunteer dashboard shows about the signed-in user's own
+ * items: how many there are in each status and the most recent few.
+ */
+public class UserSummary<S extends Enum<S>, T> {
+    
+    private final Map<S, Long> countsByStatus;
+    private final List<T> recent;
+    
+    UserSummary(Map<S, Long> countsByStatus, List<T> recent) {
+        this.countsByStatus = countsByStatus;
+        this.recent = recent;
+    }
+    
+    public static <S extends Enum<S>, T> UserSummary<S, T> empty() {
+        return new UserSummary<S, T>(Map.of(), List.of());
+    }
+    
+    public long getTotal() {
+        return countsByStatus.values().stream().mapToLong(Long::longValue).sum();
+    }
+    
+    public long getCount(S status) {
+        return countsByStatus.getOrDefault(status, 0L);
+    }
+    
+    public List<T> getRecent() {
+        return recent;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.sara.service;
+
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.entity.User;
+import com.sara.entity.VolunteerAssignment;
+import com.sara.event.EntityChangeEvent;
+import com.sara.repository.RequestRepository;
+import com.sara.repository.ResourceRepository;
+import com.sara.repository.UserRepository;
+import com.sara.repository.VolunteerAssignmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Per-user dashboard summaries: one grouped COUNT by status and one bounded recent list,
+ * read together in a single read-only transaction. Summaries are cached per user and
+ * dropped when a change to one of that user's own items commits. Changes that only show
+ * through an association (a request edited under a volunteer's assignment) are bounded
+ * by {@code sara.dashboard.user-summary-ttl-ms} instead.
+ */
+@Service
+public class UserSummaryService {
+    
+    private final UserRepository userRepository;
+    private final ResourceRepository resourceRepository;
+    private final RequestRepository requestRepository;
+    private final VolunteerAssignmentRepository volunteerAssignmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int recentLimit;
+    
+    private final BoundedCache<Long, UserSummary<Resource.ResourceStatus, Resource>> donors;
+    private final BoundedCache<Long, UserSummary<Request.RequestStatus, Request>> victims;
+    private final BoundedCache<Long, UserSummary<VolunteerAssignment.AssignmentStatus, VolunteerAssignment>> volunteers;
+    
+    public UserSummaryService(UserRepository userRepository,
+                              ResourceRepository resourceRepository,
+                              RequestRepository requestRepository,
+                              VolunteerAssignmentRepository volunteerAssignmentRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${sara.dashboard.recent-limit:5}") int recentLimit,
+                              @Value("${sara.dashboard.user-summary-cache-size:10000}") int cacheSize,
+                              @Value("${sara.dashboard.user-summary-ttl-ms:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.resourceRepository = resourceRepository;
+        this.requestRepository = requestRepository;
+        this.volunteerAssignmentRepository = volunteerAssignmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.recentLimit = recentLimit;
+        this.donors = BoundedCache.lru("donor-summaries", cacheSize, ttlMillis);
+        this.victims = BoundedCache.lru("victim-summaries", cacheSize, ttlMillis);
+        this.volunteers = BoundedCache.lru("volunteer-summaries", cacheSize, ttlMillis);
+    }
+    
+    public UserSummary<Resource.ResourceStatus, Resource> getDonorSummary(Long userId) {
+        return donors.get(userId, () -> load(userId, Resource.ResourceStatus.class,
+            resourceRepository::countGroupedByStatusForUser,
+            user -> resourceRepository.findByUserOrderByCreatedAtDesc(user, PageRequest.of(0, recentLimit))));
+    }
+    
+    public UserSummary<Request.RequestStatus, Request> getVictimSummary(Long userId) {
+        return victims.get(userId, () -> load(userId, Request.RequestStatus.class,
+            requestRepository::countGroupedByStatusForUser,
+            user -> requestRepository.findByUserOrderByCreatedAtDesc(user, PageRequest.of(0, recentLimit))));
+    }
+    
+    public UserSummary<VolunteerAssignment.AssignmentStatus, VolunteerAssignment> getVolunteerSummary(Long userId) {
+        return volunteers.get(userId, () -> load(userId, VolunteerAssignment.AssignmentStatus.class,
+            volunteerAssignmentRepository::countGroupedByStatusForVolunteer,
+            user -> volunteerAssignmentRepository.findByVolunteerOrderByAssignedAtDesc(user,
+                PageRequest.of(0, recentLimit))));
+    }
+    
+    public List<CacheStats> getStats() {
+        return List.of(donors.stats(), victims.stats(), volunteers.stats());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Resource resource && resource.getUser() != null) {
+            donors.invalidate(resource.getUser().getId());
+        } else if (entity instanceof Request request && request.getUser() != null) {
+            victims.invalidate(request.getUser().getId());
+        } else if (entity instanceof VolunteerAssignment assignment && assignment.getVolunteer() != null) {
+            volunteers.invalidate(assignment.getVolunteer().getId());
+        } else if (entity instanceof User user) {
+            donors.invalidate(user.getId());
+            victims.invalidate(user.getId());
+            volunteers.invalidate(user.getId());
+        }
+    }
+    
+    private <S extends Enum<S>, T> UserSummary<S, T> load(Long userId, Class<S> statusType,
+                                                        Function<User, List<Object[]>> counts,
+                                                        Function<User, List<T>> recent) {
+        return readOnlyTransaction.execute(status -> {
+            User user = userRepository.getReferenceById(userId);
+            Map<S, Long> countsByStatus = new EnumMap<>(statusType);
+            for (Object[] row : counts.apply(user)) {
+                countsByStatus.put(statusType.cast(row[0]), (Long) row[1]);
+            }
+            return new UserSummary<>(countsByStatus, List.copyOf(recent.apply(user)));
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+-- Baseline schema, matching the JPA entities as of the outbox
+CREATE TABLE users (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    email varchar(255) NOT NULL,
+    full_name varchar(255) NOT NULL,
+    phone_number varchar(255) NOT NULL,
+    address varchar(255) NOT NULL,
+    city varchar(255) NOT NULL,
+    state varchar(255) NOT NULL,
+    zip_code varchar(255) NOT NULL,
+    role varchar(32),
+    enabled boolean NOT NULL,
+    created_at timestamp(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE resources (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL,
+    description varchar(255),
+    type varchar(32) NOT NULL,
+    quantity integer NOT NULL,
+    location varchar(255) NOT NULL,
+    latitude float(53),
+    longitude float(53),
+    contact_info varchar(255) NOT NULL,
+    status varchar(32),
+    user_id bigint NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    verified boolean NOT NULL,
+    version bigint,
+    CONSTRAINT fk_resources_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE requests (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title varchar(255) NOT NULL,
+    description varchar(255) NOT NULL,
+    resource_type varchar(32) NOT NULL,
+    quantity_needed integer NOT NULL,
+    location varchar(255) NOT NULL,
+    latitude float(53),
+    longitude float(53),
+    urgency varchar(32) NOT NULL,
+    urgency_rank integer,
+    status varchar(32),
+    user_id bigint NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    needed_by timestamp(6),
+    volunteer_count integer DEFAULT 0 NOT NULL,
+    CONSTRAINT fk_requests_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE volunteer_assignments (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    volunteer_id bigint NOT NULL,
+    request_id bigint NOT NULL,
+    status varchar(32),
+    assigned_at timestamp(6),
+    completed_at timestamp(6),
+    notes varchar(255),
+    CONSTRAINT uk_assignment_volunteer_request UNIQUE (volunteer_id, request_id),
+    CONSTRAINT fk_assignments_volunteer FOREIGN KEY (volunteer_id) REFERENCES users (id),
+    CONSTRAINT fk_assignments_request FOREIGN KEY (request_id) REFERENCES requests (id)
+);
+
+CREATE TABLE reservations (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    resource_id bigint NOT NULL,
+    request_id bigint NOT NULL,
+    reserved_by bigint,
+    quantity integer NOT NULL,
+    status varchar(32),
+    created_at timestamp(6),
+    released_at timestamp(6),
+    CONSTRAINT fk_reservations_resource FOREIGN KEY (resource_id) REFERENCES resources (id),
+    CONSTRAINT fk_reservations_request FOREIGN KEY (request_id) REFERENCES requests (id),
+    CONSTRAINT fk_reservations_user FOREIGN KEY (reserved_by) REFERENCES users (id)
+);
+
+CREATE TABLE outbox_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type varchar(255) NOT NULL,
+    aggregate_id bigint NOT NULL,
+    event_type varchar(255) NOT NULL,
+    previous_value varchar(255),
+    new_value varchar(255),
+    status varchar(32),
+    attempts integer NOT NULL,
+    last_error varchar(1000),
+    created_at timestamp(6),
+    processed_at timestamp(6)
+);
+
+CREATE INDEX idx_outbox_status_id ON outbox_events (status, id);
\ No newline at end of file
@@ -0,0 +1,16 @@
+-- Composite indexes for the list, count and keyset pagination queries
+
+-- Dashboard counts and the available-and-verified stock scan
+CREATE INDEX idx_resources_status_verified ON resources (status, verified);
+-- Donor's own resources, newest first
+CREATE INDEX idx_resources_user_created ON resources (user_id, created_at);
+
+-- Admin request list filtered by status and urgency, newest first
+CREATE INDEX idx_requests_status_urgency_created ON requests (status, urgency, created_at);
+-- Open requests in priority order (urgency rank, then oldest first) for the volunteer pages
+CREATE INDEX idx_requests_status_rank_created ON requests (status, urgency_rank, created_at, id);
+-- Victim's own requests, newest first
+CREATE INDEX idx_requests_user_created ON requests (user_id, created_at);
+
+-- Volunteer's own assignments, newest first
+CREATE INDEX idx_assignments_volunteer_assigned ON volunteer_assignments (volunteer_id, assigned_at);
\ No newline at end of file
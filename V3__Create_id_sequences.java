@@ -0,0 +1,45 @@
+package com.sara.config;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Moves id generation from identity columns to sequences, so Hibernate can assign ids
+ * without inserting and send inserts in JDBC batches. Each sequence starts after the
+ * highest id already in its table; that has to be read first, as neither H2 nor
+ * PostgreSQL accepts a query as a sequence's start value. Written in Java for that
+ * reason, and picked up by Flyway as a bean. The increments match the entities'
+ * {@code allocationSize}.
+ */
+@Component
+public class V3__Create_id_sequences extends BaseJavaMigration {
+    
+    private static final Map<String, Integer> INCREMENTS = Map.of(
+        "users", 50,
+        "resources", 50,
+        "requests", 50,
+        "volunteer_assignments", 50,
+        "reservations", 50,
+        "outbox_events", 1);
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (Map.Entry<String, Integer> table : INCREMENTS.entrySet()) {
+                long start;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table.getKey())) {
+                    rs.next();
+                    start = rs.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + table.getKey() + "_seq START WITH " + start
+                    + " INCREMENT BY " + table.getValue());
+                // Ids now always come from the sequence; an identity default left behind would hand out duplicates
+                statement.execute("ALTER TABLE " + table.getKey() + " ALTER COLUMN id DROP IDENTITY");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,3 @@
+-- Key of the write-behind intake journal entry a request was written from
+ALTER TABLE requests ADD COLUMN intake_key varchar(36);
+ALTER TABLE requests ADD CONSTRAINT uk_requests_intake_key UNIQUE (intake_key);
\ No newline at end of file
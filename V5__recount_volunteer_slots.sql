@@ -0,0 +1,5 @@
+-- Completed assignments no longer hold a volunteer slot; recount the slots held today
+UPDATE requests r SET volunteer_count = (
+    SELECT COUNT(*) FROM volunteer_assignments a
+    WHERE a.request_id = r.id AND a.status IN ('ASSIGNED', 'IN_PROGRESS')
+);
\ No newline at end of file
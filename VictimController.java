@@ -2,19 +2,28 @@ package com.sara.controller;
 
 import com.sara.entity.Request;
 import com.sara.entity.Resource;
-import com.sara.entity.User;
+import com.sara.service.BrowseCacheService;
+import com.sara.service.CurrentUser;
+import com.sara.service.CursorPage;
+import com.sara.service.EntityCacheService;
+import com.sara.service.Nearby;
+import com.sara.service.RequestIntakeService;
 import com.sara.service.RequestService;
 import com.sara.service.ResourceService;
 import com.sara.service.UserService;
+import com.sara.service.UserSummary;
+import com.sara.service.UserSummaryService;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
-import java.security.Principal;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/victim")
@@ -24,35 +33,48 @@ public class VictimController {
     private final RequestService requestService;
     private final ResourceService resourceService;
     private final UserService userService;
+    private final UserSummaryService userSummaryService;
+    private final BrowseCacheService browseCacheService;
+    private final EntityCacheService entityCacheService;
+    private final PageComposer pageComposer;
+    private final RequestIntakeService requestIntakeService;
     
-    public VictimController(RequestService requestService, ResourceService resourceService, UserService userService) {
+    public VictimController(RequestService requestService, ResourceService resourceService, UserService userService,
+                            UserSummaryService userSummaryService, BrowseCacheService browseCacheService,
+                            EntityCacheService entityCacheService, PageComposer pageComposer,
+                            RequestIntakeService requestIntakeService) {
         this.requestService = requestService;
         this.resourceService = resourceService;
         this.userService = userService;
+        this.userSummaryService = userSummaryService;
+        this.browseCacheService = browseCacheService;
+        this.entityCacheService = entityCacheService;
+        this.pageComposer = pageComposer;
+        this.requestIntakeService = requestIntakeService;
     }
     
     @GetMapping("/dashboard")
-    public String dashboard(Model model, Principal principal) {
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            model.addAttribute("user", user.get());
-            model.addAttribute("userRequests", requestService.findByUser(user.get()));
-            model.addAttribute("availableResources", resourceService.findAvailableResources().stream().limit(10).toList());
-            model.addAttribute("totalRequests", requestService.findByUser(user.get()).size());
-            model.addAttribute("fulfilledRequests", 
-                requestService.findByUser(user.get()).stream()
-                    .filter(r -> r.getStatus() == Request.RequestStatus.FULFILLED)
-                    .count());
-        }
+    public String dashboard(Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        model.addAttribute("user", currentUser);
+        pageComposer.compose(model)
+            .add("summary", () -> userSummaryService.getVictimSummary(currentUser.getId()),
+                UserSummary.<Request.RequestStatus, Request>empty(),
+                summary -> addSummary(model, summary))
+            .add("availableResources", () -> browseCacheService.findAvailableResourcesPage(null, null, 10).getItems(),
+                List.of())
+            .fetch();
         return "victim/dashboard";
     }
     
+    private static void addSummary(Model model, UserSummary<Request.RequestStatus, Request> summary) {
+        model.addAttribute("userRequests", summary.getRecent());
+        model.addAttribute("totalRequests", summary.getTotal());
+        model.addAttribute("fulfilledRequests", summary.getCount(Request.RequestStatus.FULFILLED));
+    }
+    
     @GetMapping("/requests")
-    public String requests(Model model, Principal principal) {
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            model.addAttribute("requests", requestService.findByUser(user.get()));
-        }
+    public String requests(Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        model.addAttribute("requests", requestService.findByUser(userService.getReference(currentUser.getId())));
         return "victim/requests";
     }
     
@@ -68,7 +90,7 @@ public class VictimController {
     public String createRequest(@Valid @ModelAttribute("request") Request request,
                                BindingResult result,
                                Model model,
-                               Principal principal,
+                               @AuthenticationPrincipal CurrentUser currentUser,
                                RedirectAttributes redirectAttributes) {
         
         if (result.hasErrors()) {
@@ -77,24 +99,34 @@ public class VictimController {
             return "victim/request-form";
         }
         
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            request.setUser(user.get());
-            requestService.saveRequest(request);
-            redirectAttributes.addFlashAttribute("success", "Request submitted successfully!");
+        if (requestIntakeService.isEnabled()) {
+            try {
+                requestIntakeService.submit(request, currentUser.getId());
+            } catch (IllegalStateException e) {
+                model.addAttribute("error", e.getMessage());
+                model.addAttribute("resourceTypes", Resource.ResourceType.values());
+                model.addAttribute("urgencyLevels", Request.UrgencyLevel.values());
+                return "victim/request-form";
+            }
+            redirectAttributes.addFlashAttribute("success",
+                "Request received! It will appear in your requests in a moment.");
+            return "redirect:/victim/requests";
         }
         
+        request.setUser(userService.getReference(currentUser.getId()));
+        requestService.saveRequest(request);
+        redirectAttributes.addFlashAttribute("success", "Request submitted successfully!");
+        
         return "redirect:/victim/requests";
     }
     
     @GetMapping("/requests/{id}/edit")
-    public String editRequestForm(@PathVariable Long id, Model model, Principal principal) {
-        Optional<Request> request = requestService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
+    public String editRequestForm(@PathVariable Long id, Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        Optional<Request> request = entityCacheService.findRequest(id);
         
-        if (request.isPresent() && user.isPresent()) {
+        if (request.isPresent()) {
             // Check if the request belongs to the current user
-            if (!request.get().getUser().getId().equals(user.get().getId())) {
+            if (!currentUser.owns(request.get().getUser())) {
                 return "redirect:/victim/requests";
             }
             
@@ -112,7 +144,7 @@ public class VictimController {
                                @Valid @ModelAttribute("request") Request request,
                                BindingResult result,
                                Model model,
-                               Principal principal,
+                               @AuthenticationPrincipal CurrentUser currentUser,
                                RedirectAttributes redirectAttributes) {
         
         if (result.hasErrors()) {
@@ -122,11 +154,10 @@ public class VictimController {
         }
         
         Optional<Request> existingRequest = requestService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
         
-        if (existingRequest.isPresent() && user.isPresent()) {
+        if (existingRequest.isPresent()) {
             // Check if the request belongs to the current user
-            if (!existingRequest.get().getUser().getId().equals(user.get().getId())) {
+            if (!currentUser.owns(existingRequest.get().getUser())) {
                 return "redirect:/victim/requests";
             }
             
@@ -136,6 +167,8 @@ public class VictimController {
             updatedRequest.setResourceType(request.getResourceType());
             updatedRequest.setQuantityNeeded(request.getQuantityNeeded());
             updatedRequest.setLocation(request.getLocation());
+            updatedRequest.setLatitude(request.getLatitude());
+            updatedRequest.setLongitude(request.getLongitude());
             updatedRequest.setUrgency(request.getUrgency());
             updatedRequest.setNeededBy(request.getNeededBy());
             
@@ -148,15 +181,14 @@ public class VictimController {
     
     @PostMapping("/requests/{id}/delete")
     public String deleteRequest(@PathVariable Long id, 
-                               Principal principal,
+                               @AuthenticationPrincipal CurrentUser currentUser,
                                RedirectAttributes redirectAttributes) {
         
         Optional<Request> request = requestService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
         
-        if (request.isPresent() && user.isPresent()) {
+        if (request.isPresent()) {
             // Check if the request belongs to the current user
-            if (request.get().getUser().getId().equals(user.get().getId())) {
+            if (currentUser.owns(request.get().getUser())) {
                 requestService.deleteRequest(id);
                 redirectAttributes.addFlashAttribute("success", "Request deleted successfully!");
             }
@@ -167,13 +199,38 @@ public class VictimController {
     
     @GetMapping("/resources")
     public String availableResources(Model model,
+                                    @RequestParam(required = false) String q,
                                     @RequestParam(required = false) Resource.ResourceType type,
-                                    @RequestParam(required = false) String location) {
-        var resources = (type != null || (location != null && !location.isEmpty())) 
-            ? resourceService.findFilteredResources(type, location)
-            : resourceService.findAvailableResources();
-            
-        model.addAttribute("resources", resources);
+                                    @RequestParam(required = false) String location,
+                                    @RequestParam(required = false) Double lat,
+                                    @RequestParam(required = false) Double lon,
+                                    @RequestParam(required = false) Double radiusKm,
+                                    @RequestParam(required = false) String cursor) {
+        List<Nearby<Resource>> nearest = null;
+        if (lat != null && lon != null) {
+            try {
+                nearest = resourceService.findNearestResources(lat, lon, radiusKm, type);
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("error", e.getMessage());
+                lat = null;
+                lon = null;
+            }
+        }
+        if (nearest != null) {
+            model.addAttribute("resources", nearest.stream().map(Nearby::item).toList());
+            model.addAttribute("distances", nearest.stream()
+                .collect(Collectors.toMap(n -> n.item().getId(), Nearby::distanceKm)));
+        } else if ((q != null && !q.isEmpty()) || (location != null && !location.isEmpty())) {
+            Pagination.addSearchResults(model, "resources", browseCacheService.searchResources(q, type, location));
+        } else {
+            Pagination.addPage(model, "resources",
+                browseCacheService.findAvailableResourcesPage(type, cursor, CursorPage.DEFAULT_SIZE), cursor);
+        }
+        
+        model.addAttribute("query", q);
+        model.addAttribute("lat", lat);
+        model.addAttribute("lon", lon);
+        model.addAttribute("radiusKm", radiusKm);
         model.addAttribute("resourceTypes", Resource.ResourceType.values());
         model.addAttribute("selectedType", type);
         model.addAttribute("selectedLocation", location);
@@ -183,7 +240,7 @@ public class VictimController {
     
     @GetMapping("/resources/{id}")
     public String viewResource(@PathVariable Long id, Model model) {
-        Optional<Resource> resource = resourceService.findById(id);
+        Optional<Resource> resource = entityCacheService.findResource(id);
         
         if (resource.isPresent()) {
             model.addAttribute("resource", resource.get());
@@ -194,13 +251,12 @@ public class VictimController {
     }
     
     @GetMapping("/requests/{id}")
-    public String viewRequest(@PathVariable Long id, Model model, Principal principal) {
-        Optional<Request> request = requestService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
+    public String viewRequest(@PathVariable Long id, Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        Optional<Request> request = entityCacheService.findRequest(id);
         
-        if (request.isPresent() && user.isPresent()) {
+        if (request.isPresent()) {
             // Check if the request belongs to the current user
-            if (!request.get().getUser().getId().equals(user.get().getId())) {
+            if (!currentUser.owns(request.get().getUser())) {
                 return "redirect:/victim/requests";
             }
             
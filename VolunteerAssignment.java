@@ -1,13 +1,18 @@
 package com.sara.entity;
 
+import com.sara.event.EntityChangeListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "volunteer_assignments")
+@Table(name = "volunteer_assignments", uniqueConstraints =
+    @UniqueConstraint(name = "uk_assignment_volunteer_request", columnNames = {"volunteer_id", "request_id"}),
+    indexes = @Index(name = "idx_assignments_volunteer_assigned", columnList = "volunteer_id, assigned_at"))
+@EntityListeners(EntityChangeListener.class)
 public class VolunteerAssignment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "volunteer_assignments_seq")
+    @SequenceGenerator(name = "volunteer_assignments_seq", sequenceName = "volunteer_assignments_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -3,17 +3,88 @@ package com.sara.repository;
 import com.sara.entity.VolunteerAssignment;
 import com.sara.entity.User;
 import com.sara.entity.Request;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VolunteerAssignmentRepository extends JpaRepository<VolunteerAssignment, Long> {
     List<VolunteerAssignment> findByVolunteer(User volunteer);
+    
+    // List queries fetch the association their pages render in the same SELECT
+    @EntityGraph(attributePaths = "volunteer")
     List<VolunteerAssignment> findByRequest(Request request);
+    
+    @EntityGraph(attributePaths = "request")
     List<VolunteerAssignment> findByStatus(VolunteerAssignment.AssignmentStatus status);
+    
+    @EntityGraph(attributePaths = "request")
     List<VolunteerAssignment> findByVolunteerOrderByAssignedAtDesc(User volunteer);
+    
+    @EntityGraph(attributePaths = "request")
+    List<VolunteerAssignment> findByVolunteerOrderByAssignedAtDesc(User volunteer, Pageable pageable);
+    
     Optional<VolunteerAssignment> findByVolunteerAndRequest(User volunteer, Request request);
     boolean existsByVolunteerAndRequest(User volunteer, Request request);
+    long countByStatus(VolunteerAssignment.AssignmentStatus status);
+    
+    @Query("SELECT a.status, COUNT(a) FROM VolunteerAssignment a GROUP BY a.status")
+    List<Object[]> countGroupedByStatus();
+    
+    @Query("SELECT a.status, COUNT(a) FROM VolunteerAssignment a WHERE a.volunteer = :volunteer GROUP BY a.status")
+    List<Object[]> countGroupedByStatusForVolunteer(@Param("volunteer") User volunteer);
+    
+    @Query("SELECT a.id, a.status FROM VolunteerAssignment a")
+    List<Object[]> findAllStatusKeys();
+    
+    @EntityGraph(attributePaths = "request")
+    @Query("SELECT a FROM VolunteerAssignment a WHERE (:status IS NULL OR a.status = :status) " +
+           "ORDER BY a.assignedAt DESC, a.id DESC")
+    List<VolunteerAssignment> findPage(@Param("status") VolunteerAssignment.AssignmentStatus status,
+                                       Pageable pageable);
+    
+    @EntityGraph(attributePaths = "request")
+    @Query("SELECT a FROM VolunteerAssignment a WHERE (:status IS NULL OR a.status = :status) AND " +
+           "(a.assignedAt < :assignedAt OR (a.assignedAt = :assignedAt AND a.id < :id)) " +
+           "ORDER BY a.assignedAt DESC, a.id DESC")
+    List<VolunteerAssignment> findPageAfter(@Param("status") VolunteerAssignment.AssignmentStatus status,
+                                            @Param("assignedAt") LocalDateTime assignedAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a FROM VolunteerAssignment a JOIN FETCH a.volunteer WHERE " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "(:from IS NULL OR a.assignedAt >= :from) AND (:to IS NULL OR a.assignedAt < :to) ORDER BY a.id")
+    Stream<VolunteerAssignment> streamForExport(@Param("status") VolunteerAssignment.AssignmentStatus status,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+    
+    // Bulk status changes: lock and read the rows that will change, then update them in one statement
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM VolunteerAssignment a WHERE a.id IN :ids AND a.status <> :status ORDER BY a.id")
+    List<VolunteerAssignment> findForStatusChange(@Param("ids") Collection<Long> ids,
+                                                  @Param("status") VolunteerAssignment.AssignmentStatus status);
+    
+    // A null completedAt keeps the current value
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VolunteerAssignment a SET a.status = :status, " +
+           "a.completedAt = COALESCE(:completedAt, a.completedAt) WHERE a.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") VolunteerAssignment.AssignmentStatus status,
+                     @Param("completedAt") LocalDateTime completedAt);
 }
\ No newline at end of file
@@ -3,16 +3,32 @@ package com.sara.controller;
 import com.sara.entity.Request;
 import com.sara.entity.User;
 import com.sara.entity.VolunteerAssignment;
+import com.sara.service.BrowseCacheService;
+import com.sara.service.CurrentUser;
+import com.sara.service.CursorPage;
+import com.sara.service.EntityCacheService;
+import com.sara.service.LiveFeedService;
+import com.sara.service.MatchingService;
+import com.sara.service.Nearby;
 import com.sara.service.RequestService;
+import com.sara.service.ReservationService;
 import com.sara.service.UserService;
+import com.sara.service.UserSummary;
+import com.sara.service.UserSummaryService;
 import com.sara.service.VolunteerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
-import java.security.Principal;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/volunteer")
@@ -22,38 +38,98 @@ public class VolunteerController {
     private final RequestService requestService;
     private final UserService userService;
     private final VolunteerService volunteerService;
+    private final MatchingService matchingService;
+    private final ReservationService reservationService;
+    private final LiveFeedService liveFeedService;
+    private final UserSummaryService userSummaryService;
+    private final BrowseCacheService browseCacheService;
+    private final EntityCacheService entityCacheService;
+    private final PageComposer pageComposer;
     
-    public VolunteerController(RequestService requestService, UserService userService, VolunteerService volunteerService) {
+    public VolunteerController(RequestService requestService, UserService userService, VolunteerService volunteerService,
+                               MatchingService matchingService, ReservationService reservationService,
+                               LiveFeedService liveFeedService, UserSummaryService userSummaryService,
+                               BrowseCacheService browseCacheService, EntityCacheService entityCacheService,
+                               PageComposer pageComposer) {
         this.requestService = requestService;
         this.userService = userService;
         this.volunteerService = volunteerService;
+        this.matchingService = matchingService;
+        this.reservationService = reservationService;
+        this.liveFeedService = liveFeedService;
+        this.userSummaryService = userSummaryService;
+        this.browseCacheService = browseCacheService;
+        this.entityCacheService = entityCacheService;
+        this.pageComposer = pageComposer;
     }
     
     @GetMapping("/dashboard")
-    public String dashboard(Model model, Principal principal) {
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            model.addAttribute("user", user.get());
-            model.addAttribute("myAssignments", volunteerService.findByVolunteer(user.get()));
-            model.addAttribute("availableRequests", requestService.findOpenRequests().stream().limit(10).toList());
-            model.addAttribute("totalAssignments", volunteerService.findByVolunteer(user.get()).size());
-            model.addAttribute("completedAssignments", 
-                volunteerService.findByVolunteer(user.get()).stream()
-                    .filter(a -> a.getStatus() == VolunteerAssignment.AssignmentStatus.COMPLETED)
-                    .count());
-        }
+    public String dashboard(Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        model.addAttribute("user", currentUser);
+        pageComposer.compose(model)
+            .add("summary", () -> userSummaryService.getVolunteerSummary(currentUser.getId()),
+                UserSummary.<VolunteerAssignment.AssignmentStatus, VolunteerAssignment>empty(),
+                summary -> addSummary(model, summary))
+            .add("availableRequests", () -> browseCacheService.findOpenRequestsPage(null, null, 10).getItems(), List.of())
+            .fetch();
+        model.addAttribute("liveFeed", true);
         return "volunteer/dashboard";
     }
     
+    private static void addSummary(Model model,
+                                   UserSummary<VolunteerAssignment.AssignmentStatus, VolunteerAssignment> summary) {
+        model.addAttribute("myAssignments", summary.getRecent());
+        model.addAttribute("totalAssignments", summary.getTotal());
+        model.addAttribute("completedAssignments", summary.getCount(VolunteerAssignment.AssignmentStatus.COMPLETED));
+    }
+    
+    // Past the stream limit the page simply stays as loaded; EventSource does not retry a 503
+    @GetMapping(path = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> liveFeed(@RequestParam(required = false) Request.UrgencyLevel urgency,
+                                               @RequestParam(required = false) String location) {
+        try {
+            return ResponseEntity.ok(liveFeedService.subscribe(urgency, location));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     @GetMapping("/requests")
     public String availableRequests(Model model,
+                                   @RequestParam(required = false) String q,
                                    @RequestParam(required = false) Request.UrgencyLevel urgency,
-                                   @RequestParam(required = false) String location) {
-        var requests = (urgency != null || (location != null && !location.isEmpty())) 
-            ? requestService.findFilteredRequests(urgency, location)
-            : requestService.findOpenRequests();
-            
-        model.addAttribute("requests", requests);
+                                   @RequestParam(required = false) String location,
+                                   @RequestParam(required = false) Double lat,
+                                   @RequestParam(required = false) Double lon,
+                                   @RequestParam(required = false) Double radiusKm,
+                                   @RequestParam(required = false) String cursor) {
+        List<Nearby<Request>> nearest = null;
+        if (lat != null && lon != null) {
+            try {
+                nearest = requestService.findNearestRequests(lat, lon, radiusKm, urgency);
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("error", e.getMessage());
+                lat = null;
+                lon = null;
+            }
+        }
+        if (nearest != null) {
+            model.addAttribute("requests", nearest.stream().map(Nearby::item).toList());
+            model.addAttribute("distances", nearest.stream()
+                .collect(Collectors.toMap(n -> n.item().getId(), Nearby::distanceKm)));
+        } else if ((q != null && !q.isEmpty()) || (location != null && !location.isEmpty())) {
+            Pagination.addSearchResults(model, "requests", browseCacheService.searchRequests(q, urgency, location));
+        } else {
+            Pagination.addPage(model, "requests",
+                browseCacheService.findOpenRequestsPage(urgency, cursor, CursorPage.DEFAULT_SIZE), cursor);
+            // Only the first page of the plain listing is kept current; new requests slot in by priority
+            model.addAttribute("liveFeed", cursor == null);
+        }
+        
+        model.addAttribute("query", q);
+        model.addAttribute("lat", lat);
+        model.addAttribute("lon", lon);
+        model.addAttribute("radiusKm", radiusKm);
         model.addAttribute("urgencyLevels", Request.UrgencyLevel.values());
         model.addAttribute("selectedUrgency", urgency);
         model.addAttribute("selectedLocation", location);
@@ -62,17 +138,14 @@ public class VolunteerController {
     }
     
     @GetMapping("/assignments")
-    public String myAssignments(Model model, Principal principal) {
-        Optional<User> user = userService.findByUsername(principal.getName());
-        if (user.isPresent()) {
-            model.addAttribute("assignments", volunteerService.findByVolunteer(user.get()));
-        }
+    public String myAssignments(Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        model.addAttribute("assignments", volunteerService.findByVolunteer(userService.getReference(currentUser.getId())));
         return "volunteer/assignments";
     }
     
     @GetMapping("/requests/{id}/volunteer")
-    public String volunteerForRequestForm(@PathVariable Long id, Model model, Principal principal) {
-        Optional<Request> request = requestService.findById(id);
+    public String volunteerForRequestForm(@PathVariable Long id, Model model) {
+        Optional<Request> request = entityCacheService.findRequest(id);
         if (request.isPresent()) {
             model.addAttribute("request", request.get());
             return "volunteer/volunteer_form";
@@ -82,15 +155,14 @@ public class VolunteerController {
     
     @PostMapping("/requests/{id}/volunteer")
     public String volunteerForRequest(@PathVariable Long id,
-                                     Principal principal,
+                                     @AuthenticationPrincipal CurrentUser currentUser,
                                      RedirectAttributes redirectAttributes) {
         
         Optional<Request> request = requestService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
         
-        if (request.isPresent() && user.isPresent()) {
+        if (request.isPresent()) {
             try {
-                volunteerService.assignVolunteer(user.get(), request.get());
+                volunteerService.assignVolunteer(userService.getReference(currentUser.getId()), request.get());
                 redirectAttributes.addFlashAttribute("success", 
                     "You have successfully volunteered for this request!");
             } catch (IllegalStateException e) {
@@ -105,25 +177,28 @@ public class VolunteerController {
     public String updateAssignmentStatus(@PathVariable Long id,
                                         @RequestParam VolunteerAssignment.AssignmentStatus status,
                                         RedirectAttributes redirectAttributes,
-                                        Principal principal) {
+                                        @AuthenticationPrincipal CurrentUser currentUser) {
         
         Optional<VolunteerAssignment> assignment = volunteerService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
         
-        if (assignment.isPresent() && user.isPresent()) {
+        if (assignment.isPresent()) {
             // Check if the assignment belongs to the current volunteer
-            if (assignment.get().getVolunteer().getId().equals(user.get().getId())) {
-                volunteerService.updateAssignmentStatus(id, status);
-                
-                // Update request status if assignment is completed
-                if (status == VolunteerAssignment.AssignmentStatus.COMPLETED) {
-                    requestService.updateRequestStatus(
-                        assignment.get().getRequest().getId(), 
-                        Request.RequestStatus.FULFILLED
-                    );
+            if (currentUser.owns(assignment.get().getVolunteer())) {
+                try {
+                    volunteerService.updateAssignmentStatus(id, status);
+                    
+                    // Update request status if assignment is completed
+                    if (status == VolunteerAssignment.AssignmentStatus.COMPLETED) {
+                        requestService.updateRequestStatus(
+                            assignment.get().getRequest().getId(), 
+                            Request.RequestStatus.FULFILLED
+                        );
+                    }
+                    
+                    redirectAttributes.addFlashAttribute("success", "Assignment status updated successfully!");
+                } catch (IllegalStateException e) {
+                    redirectAttributes.addFlashAttribute("error", e.getMessage());
                 }
-                
-                redirectAttributes.addFlashAttribute("success", "Assignment status updated successfully!");
             }
         }
         
@@ -132,15 +207,14 @@ public class VolunteerController {
     
     @PostMapping("/assignments/{id}/cancel")
     public String cancelAssignment(@PathVariable Long id,
-                                  Principal principal,
+                                  @AuthenticationPrincipal CurrentUser currentUser,
                                   RedirectAttributes redirectAttributes) {
         
         Optional<VolunteerAssignment> assignment = volunteerService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
         
-        if (assignment.isPresent() && user.isPresent()) {
+        if (assignment.isPresent()) {
             // Check if the assignment belongs to the current volunteer
-            if (assignment.get().getVolunteer().getId().equals(user.get().getId())) {
+            if (currentUser.owns(assignment.get().getVolunteer())) {
                 volunteerService.deleteAssignment(id);
                 redirectAttributes.addFlashAttribute("success", "Assignment cancelled successfully!");
             }
@@ -150,16 +224,60 @@ public class VolunteerController {
     }
     
     @GetMapping("/requests/{id}")
-    public String viewRequest(@PathVariable Long id, Model model, Principal principal) {
-        Optional<Request> request = requestService.findById(id);
-        Optional<User> user = userService.findByUsername(principal.getName());
+    public String viewRequest(@PathVariable Long id, Model model, @AuthenticationPrincipal CurrentUser currentUser) {
+        Optional<Request> request = entityCacheService.findRequest(id);
         
-        if (request.isPresent() && user.isPresent()) {
+        if (request.isPresent()) {
             model.addAttribute("request", request.get());
-            model.addAttribute("isAssigned", volunteerService.isVolunteerAssigned(user.get(), request.get()));
+            model.addAttribute("isAssigned", volunteerService.isVolunteerAssigned(
+                userService.getReference(currentUser.getId()), request.get()));
+            model.addAttribute("matches", matchingService.proposeResources(request.get()));
+            model.addAttribute("reservations", reservationService.findByRequest(request.get()));
+            model.addAttribute("currentUser", currentUser);
             return "volunteer/requests_view";
         }
         
         return "redirect:/volunteer/requests";
     }
+    
+    @PostMapping("/requests/{id}/reservations")
+    public String reserveResource(@PathVariable Long id,
+                                  @RequestParam Long resourceId,
+                                  @RequestParam int quantity,
+                                  @AuthenticationPrincipal CurrentUser currentUser,
+                                  RedirectAttributes redirectAttributes) {
+        try {
+            reservationService.reserve(resourceId, id, quantity, userService.getReference(currentUser.getId()));
+            redirectAttributes.addFlashAttribute("success", "Reserved " + quantity + " units for this request.");
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        
+        return "redirect:/volunteer/requests/" + id;
+    }
+    
+    @PostMapping("/reservations/{id}/release")
+    public String releaseReservation(@PathVariable Long id,
+                                     @AuthenticationPrincipal CurrentUser currentUser,
+                                     RedirectAttributes redirectAttributes) {
+        var reservation = reservationService.findById(id);
+        if (reservation.isEmpty()) {
+            return "redirect:/volunteer/requests";
+        }
+        Long requestId = reservation.get().getRequest().getId();
+        
+        // Volunteers release only their own reservations; admins may release any
+        if (!currentUser.owns(reservation.get().getReservedBy()) && currentUser.getRole() != User.UserRole.ADMIN) {
+            redirectAttributes.addFlashAttribute("error", "You can only release reservations you made.");
+            return "redirect:/volunteer/requests/" + requestId;
+        }
+        
+        if (reservationService.release(id)) {
+            redirectAttributes.addFlashAttribute("success", "Reservation released.");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "Reservation was already released.");
+        }
+        
+        return "redirect:/volunteer/requests/" + requestId;
+    }
 }
\ No newline at end of file
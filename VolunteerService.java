@@ -3,48 +3,118 @@ package com.sara.service;
 import com.sara.entity.VolunteerAssignment;
 import com.sara.entity.User;
 import com.sara.entity.Request;
+import com.sara.repository.RequestRepository;
 import com.sara.repository.VolunteerAssignmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 @Transactional
 public class VolunteerService {
     
     private final VolunteerAssignmentRepository volunteerAssignmentRepository;
+    private final RequestRepository requestRepository;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxVolunteersPerRequest;
     
-    public VolunteerService(VolunteerAssignmentRepository volunteerAssignmentRepository) {
+    public VolunteerService(VolunteerAssignmentRepository volunteerAssignmentRepository,
+                            RequestRepository requestRepository, OutboxService outboxService,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${sara.volunteers.max-per-request:3}") int maxVolunteersPerRequest) {
         this.volunteerAssignmentRepository = volunteerAssignmentRepository;
+        this.requestRepository = requestRepository;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.maxVolunteersPerRequest = maxVolunteersPerRequest;
     }
     
+    /**
+     * Assigns the volunteer to the request, or returns the existing assignment if there
+     * already is one, so repeated clicks are harmless. The slot is taken first with a
+     * conditional UPDATE on the request row; that row lock serialises everyone assigning
+     * to the same request, so the existence and status checks after it cannot race and the
+     * cap holds. The unique (volunteer_id, request_id) constraint backs this up. Only open
+     * and in-progress requests take new volunteers.
+     */
     public VolunteerAssignment assignVolunteer(User volunteer, Request request) {
-        if (volunteerAssignmentRepository.existsByVolunteerAndRequest(volunteer, request)) {
-            throw new IllegalStateException("Volunteer is already assigned to this request");
+        boolean slotTaken = requestRepository.takeVolunteerSlot(request.getId(), maxVolunteersPerRequest) > 0;
+        Optional<VolunteerAssignment> existing = volunteerAssignmentRepository.findByVolunteerAndRequest(volunteer, request);
+        
+        if (existing.isPresent() && existing.get().getStatus() != VolunteerAssignment.AssignmentStatus.CANCELLED) {
+            if (slotTaken) {
+                requestRepository.releaseVolunteerSlot(request.getId());
+            }
+            return existing.get();
+        }
+        Optional<Request.RequestStatus> status = requestRepository.findStatusById(request.getId());
+        if (status.isEmpty() || (status.get() != Request.RequestStatus.OPEN
+                && status.get() != Request.RequestStatus.IN_PROGRESS)) {
+            if (slotTaken) {
+                requestRepository.releaseVolunteerSlot(request.getId());
+            }
+            throw new IllegalStateException("Request is no longer open");
+        }
+        if (!slotTaken) {
+            throw new IllegalStateException("This request already has enough volunteers");
+        }
+        if (existing.isPresent()) {
+            // Coming back after cancelling reuses the row the unique constraint keeps
+            VolunteerAssignment assignment = existing.get();
+            outboxService.recordStatusChange(VolunteerAssignment.class, assignment.getId(),
+                assignment.getStatus(), VolunteerAssignment.AssignmentStatus.ASSIGNED);
+            assignment.setStatus(VolunteerAssignment.AssignmentStatus.ASSIGNED);
+            assignment.setAssignedAt(LocalDateTime.now());
+            assignment.setCompletedAt(null);
+            return volunteerAssignmentRepository.save(assignment);
         }
         
         VolunteerAssignment assignment = new VolunteerAssignment(volunteer, request);
         return volunteerAssignmentRepository.save(assignment);
     }
     
+    @Transactional(readOnly = true)
     public Optional<VolunteerAssignment> findById(Long id) {
         return volunteerAssignmentRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public List<VolunteerAssignment> findByVolunteer(User volunteer) {
         return volunteerAssignmentRepository.findByVolunteerOrderByAssignedAtDesc(volunteer);
     }
     
+    @Transactional(readOnly = true)
     public List<VolunteerAssignment> findByRequest(Request request) {
         return volunteerAssignmentRepository.findByRequest(request);
     }
     
+    @Transactional(readOnly = true)
     public List<VolunteerAssignment> findByStatus(VolunteerAssignment.AssignmentStatus status) {
         return volunteerAssignmentRepository.findByStatus(status);
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<VolunteerAssignment> findAssignmentsPage(VolunteerAssignment.AssignmentStatus status,
+                                                               String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<VolunteerAssignment> rows = (after == null)
+            ? volunteerAssignmentRepository.findPage(status, limit)
+            : volunteerAssignmentRepository.findPageAfter(status, after.timestamp(), after.id(), limit);
+        return CursorPage.of(rows, size, a -> KeysetCursor.of(a.getAssignedAt(), a.getId()));
+    }
+    
     public VolunteerAssignment updateAssignment(VolunteerAssignment assignment) {
         return volunteerAssignmentRepository.save(assignment);
     }
@@ -53,6 +123,16 @@ public class VolunteerService {
         Optional<VolunteerAssignment> assignmentOpt = volunteerAssignmentRepository.findById(id);
         if (assignmentOpt.isPresent()) {
             VolunteerAssignment assignment = assignmentOpt.get();
+            boolean held = holdsSlot(assignment.getStatus());
+            boolean holds = holdsSlot(status);
+            Long requestId = assignment.getRequest().getId();
+            if (!held && holds
+                    && requestRepository.takeVolunteerSlot(requestId, maxVolunteersPerRequest) == 0) {
+                throw new IllegalStateException("This request already has enough volunteers");
+            } else if (held && !holds) {
+                requestRepository.releaseVolunteerSlot(requestId);
+            }
+            outboxService.recordStatusChange(VolunteerAssignment.class, id, assignment.getStatus(), status);
             assignment.setStatus(status);
             
             if (status == VolunteerAssignment.AssignmentStatus.COMPLETED) {
@@ -63,19 +143,71 @@ public class VolunteerService {
         }
     }
     
+    /**
+     * Moves the listed assignments to {@code status} with one UPDATE and returns how many
+     * changed. Volunteer slots move per request: completing or cancelling frees them and
+     * reinstating completed or cancelled assignments takes them, failing the whole change
+     * if a request would go over its cap.
+     */
+    public int updateAssignmentStatuses(Collection<Long> ids, VolunteerAssignment.AssignmentStatus status) {
+        List<VolunteerAssignment> targets = new ArrayList<>();
+        BulkUpdate.inSlices(List.copyOf(ids), slice ->
+            targets.addAll(volunteerAssignmentRepository.findForStatusChange(slice, status)));
+        
+        boolean holds = holdsSlot(status);
+        Map<Long, VolunteerAssignment.AssignmentStatus> previous = new LinkedHashMap<>();
+        // Sorted so request rows are locked in id order, like the assignment rows above
+        Map<Long, Integer> slotsByRequest = new TreeMap<>();
+        for (VolunteerAssignment assignment : targets) {
+            previous.put(assignment.getId(), assignment.getStatus());
+            if (holdsSlot(assignment.getStatus()) != holds) {
+                slotsByRequest.merge(assignment.getRequest().getId(), 1, Integer::sum);
+            }
+        }
+        slotsByRequest.forEach((requestId, slots) -> {
+            if (!holds) {
+                requestRepository.releaseVolunteerSlots(requestId, slots);
+            } else if (requestRepository.takeVolunteerSlots(requestId, slots, maxVolunteersPerRequest) == 0) {
+                throw new IllegalStateException("Request " + requestId + " already has enough volunteers");
+            }
+        });
+        
+        List<Long> changed = List.copyOf(previous.keySet());
+        LocalDateTime completedAt = status == VolunteerAssignment.AssignmentStatus.COMPLETED ? LocalDateTime.now() : null;
+        BulkUpdate.inSlices(changed, slice -> volunteerAssignmentRepository.updateStatus(slice, status, completedAt));
+        outboxService.recordStatusChanges(VolunteerAssignment.class, previous, status);
+        BulkUpdate.republish(volunteerAssignmentRepository, changed, eventPublisher);
+        return changed.size();
+    }
+    
     public void deleteAssignment(Long id) {
-        volunteerAssignmentRepository.deleteById(id);
+        Optional<VolunteerAssignment> assignmentOpt = volunteerAssignmentRepository.findById(id);
+        if (assignmentOpt.isPresent()) {
+            if (holdsSlot(assignmentOpt.get().getStatus())) {
+                requestRepository.releaseVolunteerSlot(assignmentOpt.get().getRequest().getId());
+            }
+            volunteerAssignmentRepository.delete(assignmentOpt.get());
+        }
     }
     
+    @Transactional(readOnly = true)
     public boolean isVolunteerAssigned(User volunteer, Request request) {
         return volunteerAssignmentRepository.existsByVolunteerAndRequest(volunteer, request);
     }
     
+    @Transactional(readOnly = true)
     public long getTotalAssignmentsCount() {
         return volunteerAssignmentRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public long getCompletedAssignmentsCount() {
-        return volunteerAssignmentRepository.findByStatus(VolunteerAssignment.AssignmentStatus.COMPLETED).size();
+        return volunteerAssignmentRepository.countByStatus(VolunteerAssignment.AssignmentStatus.COMPLETED);
+    }
+    
+    // Only volunteers still working on a request count against its cap
+    private static boolean holdsSlot(VolunteerAssignment.AssignmentStatus status) {
+        return status == VolunteerAssignment.AssignmentStatus.ASSIGNED
+            || status == VolunteerAssignment.AssignmentStatus.IN_PROGRESS;
     }
 }
\ No newline at end of file
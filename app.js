@@ -172,6 +172,148 @@ function filterTable(input, tableId) {
     }
 }
 
+// "Nearest to me" buttons fill the form's lat/lon from the browser position and submit it
+document.addEventListener('DOMContentLoaded', function() {
+    document.querySelectorAll('[data-near-me]').forEach(function(button) {
+        button.addEventListener('click', function() {
+            var form = button.closest('form');
+            if (!navigator.geolocation) {
+                showToast('Location is not available in this browser', 'warning');
+                return;
+            }
+            navigator.geolocation.getCurrentPosition(function(position) {
+                form.querySelector('[name="lat"]').value = position.coords.latitude;
+                form.querySelector('[name="lon"]').value = position.coords.longitude;
+                form.submit();
+            }, function() {
+                showToast('Could not determine your location', 'warning');
+            });
+        });
+    });
+});
+
+// Live feed: a container marked data-live-feed is patched in place from the server's event stream.
+// Items carry data-request-id; new ones are cloned from the data-live-template and filled by data-field.
+// Items are kept in the listing's order, most urgent first and oldest first within an urgency. A list
+// that shows data-live-limit items, or is marked data-live-more, continues past its last item, so an
+// update that sorts after that belongs to a later page and is left out.
+document.addEventListener('DOMContentLoaded', function() {
+    var container = document.querySelector('[data-live-feed]');
+    if (!container || !window.EventSource) {
+        return;
+    }
+    var template = document.querySelector(container.getAttribute('data-live-template'));
+    var limit = parseInt(container.getAttribute('data-live-limit') || '0', 10);
+    var source = new EventSource(container.getAttribute('data-live-feed'));
+
+    source.addEventListener('request', function(e) {
+        var update = JSON.parse(e.data);
+        var existing = container.querySelector('[data-request-id="' + update.id + '"]');
+        if (existing) {
+            existing.remove();
+        }
+        if (update.action === 'DELETED' || update.status !== 'OPEN') {
+            return;
+        }
+        // Changes to requests not on screen belong to other pages of the listing
+        if (!existing && update.action !== 'CREATED') {
+            return;
+        }
+        var items = container.querySelectorAll('[data-request-id]');
+        var before = null;
+        for (var i = 0; i < items.length; i++) {
+            if (comparePriority(update, priorityOf(items[i])) < 0) {
+                before = items[i];
+                break;
+            }
+        }
+        var more = container.hasAttribute('data-live-more') || (limit > 0 && items.length >= limit);
+        if (!before && more) {
+            return;
+        }
+        var item = renderLiveItem(template, update);
+        container.insertBefore(item, before);
+        if (!existing && (update.urgency === 'CRITICAL' || update.urgency === 'HIGH')) {
+            showToast('New ' + update.urgency + ' request: ' + escapeHtml(update.title), 'danger');
+        }
+        // Whatever falls past the limit sorts after the item just placed
+        items = container.querySelectorAll('[data-request-id]');
+        for (var j = limit; limit > 0 && j < items.length; j++) {
+            items[j].remove();
+        }
+        document.querySelectorAll('[data-live-empty]').forEach(function(element) {
+            element.remove();
+        });
+        highlight(item);
+    });
+
+    source.addEventListener('assignment', function(e) {
+        var update = JSON.parse(e.data);
+        var item = container.querySelector('[data-request-id="' + update.requestId + '"]');
+        if (item) {
+            highlight(item);
+        }
+    });
+});
+
+function renderLiveItem(template, update) {
+    var item = template.content.firstElementChild.cloneNode(true);
+    item.setAttribute('data-request-id', update.id);
+    item.setAttribute('data-urgency-rank', update.urgencyRank != null ? update.urgencyRank : '');
+    item.setAttribute('data-created-at', update.createdAt || '');
+    item.querySelectorAll('[data-field]').forEach(function(element) {
+        element.textContent = update[element.getAttribute('data-field')] || '';
+    });
+    item.querySelectorAll('[data-class-field]').forEach(function(element) {
+        var value = update[element.getAttribute('data-class-field')];
+        if (value) {
+            element.classList.add(value);
+        }
+    });
+    item.querySelectorAll('[data-href]').forEach(function(element) {
+        element.setAttribute('href', element.getAttribute('data-href').replace('{id}', update.id));
+    });
+    return item;
+}
+
+function priorityOf(item) {
+    var rank = item.getAttribute('data-urgency-rank');
+    return {
+        id: parseInt(item.getAttribute('data-request-id'), 10),
+        urgencyRank: rank ? parseInt(rank, 10) : null,
+        createdAt: item.getAttribute('data-created-at') || ''
+    };
+}
+
+// Negative when a comes first: higher urgency rank, then earlier creation, then lower id.
+// Creation times are ISO local date-times, which compare correctly as strings.
+function comparePriority(a, b) {
+    var rankA = a.urgencyRank != null ? a.urgencyRank : -1;
+    var rankB = b.urgencyRank != null ? b.urgencyRank : -1;
+    if (rankA !== rankB) {
+        return rankB - rankA;
+    }
+    var createdA = a.createdAt || '';
+    var createdB = b.createdAt || '';
+    if (createdA !== createdB) {
+        return createdA < createdB ? -1 : 1;
+    }
+    return a.id - b.id;
+}
+
+function highlight(element) {
+    element.classList.add('table-info');
+    setTimeout(function() {
+        element.classList.remove('table-info');
+    }, 3000);
+}
+
+function escapeHtml(text) {
+    var element = document.createElement('div');
+    element.textContent = text || '';
+    return element.innerHTML;
+}
+
 // Export functions for global use
 window.SARA = {
     showToast: showToast,
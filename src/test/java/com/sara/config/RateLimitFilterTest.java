@@ -0,0 +1,126 @@
+package com.sara.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+    
+    private static final long INTERVAL = 1_000;
+    private static final int BURST = 5;
+    private static final long TOLERANCE = (BURST - 1) * INTERVAL;
+    
+    @Test
+    void fullBucketAdmitsOneBurstThenOneTokenPerInterval() {
+        long start = 1_000_000;
+        AtomicLong bucket = new AtomicLong(start);
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, RateLimitFilter.take(bucket, start, INTERVAL, TOLERANCE));
+        }
+        assertEquals(INTERVAL, RateLimitFilter.take(bucket, start, INTERVAL, TOLERANCE));
+        assertEquals(1, RateLimitFilter.take(bucket, start + INTERVAL - 1, INTERVAL, TOLERANCE));
+        assertEquals(0, RateLimitFilter.take(bucket, start + INTERVAL, INTERVAL, TOLERANCE));
+        assertEquals(INTERVAL, RateLimitFilter.take(bucket, start + INTERVAL, INTERVAL, TOLERANCE));
+        
+        // Idle long enough, the bucket refills to one burst and no further
+        long later = start + 100 * INTERVAL;
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, RateLimitFilter.take(bucket, later, INTERVAL, TOLERANCE));
+        }
+        assertTrue(RateLimitFilter.take(bucket, later, INTERVAL, TOLERANCE) > 0);
+    }
+    
+    @Test
+    void agreesWithLeakyBucketOnRandomArrivals() {
+        Random random = new Random(20240604L);
+        for (int round = 0; round < 200; round++) {
+            long now = random.nextLong(1L << 40);
+            AtomicLong bucket = new AtomicLong(now);
+            // The continuous-state leaky bucket: fill level in nanoseconds, drained one per nanosecond
+            long level = 0;
+            long lastConforming = now;
+            for (int i = 0; i < 500; i++) {
+                now += random.nextInt(3) == 0 ? 0 : random.nextInt((int) (2 * INTERVAL));
+                long drained = Math.max(0, level - (now - lastConforming));
+                long expectedWait = drained > TOLERANCE ? drained - TOLERANCE : 0;
+                
+                long wait = RateLimitFilter.take(bucket, now, INTERVAL, TOLERANCE);
+                
+                assertEquals(expectedWait, wait, "round " + round + ", arrival " + i);
+                if (expectedWait == 0) {
+                    level = drained + INTERVAL;
+                    lastConforming = now;
+                }
+            }
+        }
+    }
+    
+    @Test
+    void concurrentTakersShareOneBurst() throws InterruptedException {
+        long now = System.nanoTime();
+        AtomicLong bucket = new AtomicLong(now);
+        int threads = 8;
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) {
+                    if (RateLimitFilter.take(bucket, now, INTERVAL, 999 * INTERVAL) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        ready.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1000, admitted.get());
+    }
+    
+    @Test
+    void refusesPastTheBurstWithRetryAfter() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("sara.rate-limit.login.per-minute", "1")
+            .withProperty("sara.rate-limit.login.burst", "3");
+        RateLimitFilter filter = new RateLimitFilter(environment);
+        
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = login(filter, "10.0.0.1");
+            assertEquals(200, response.getStatus());
+        }
+        MockHttpServletResponse refused = login(filter, "10.0.0.1");
+        assertEquals(429, refused.getStatus());
+        assertNotNull(refused.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(refused.getHeader("Retry-After")) > 0);
+        
+        // Another address has its own bucket
+        assertEquals(200, login(filter, "10.0.0.2").getStatus());
+    }
+    
+    private static MockHttpServletResponse login(RateLimitFilter filter, String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.sara.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridIndexTest {
+    
+    private record Place(double latitude, double longitude, int kind) {}
+    
+    @Test
+    void nearestAgreesWithBruteForce() {
+        Random random = new Random(20240602L);
+        for (int round = 0; round < 200; round++) {
+            double cellDegrees = new double[] {0.5, 1.0, 5.0, 30.0}[random.nextInt(4)];
+            GeoGridIndex<Integer> index = new GeoGridIndex<>(cellDegrees);
+            Map<Long, Place> places = new HashMap<>();
+            int count = 1 + random.nextInt(300);
+            // Half the points cluster around one spot, so small radii and limits have something to rank
+            double clusterLat = randomLatitude(random);
+            double clusterLon = randomLongitude(random);
+            for (long id = 1; id <= count; id++) {
+                Place place = random.nextBoolean()
+                    ? new Place(clamp(clusterLat + random.nextGaussian() * 2), wrap(clusterLon + random.nextGaussian() * 2),
+                        random.nextInt(3))
+                    : new Place(randomLatitude(random), randomLongitude(random), random.nextInt(3));
+                places.put(id, place);
+                index.put(id, place.latitude(), place.longitude(), place.kind());
+            }
+            // Moving and removing points must leave no trace of their old cells
+            for (int i = 0; i < count / 10; i++) {
+                long id = 1 + random.nextInt(count);
+                if (random.nextBoolean()) {
+                    places.remove(id);
+                    index.remove(id);
+                } else {
+                    Place place = new Place(randomLatitude(random), randomLongitude(random), random.nextInt(3));
+                    places.put(id, place);
+                    index.put(id, place.latitude(), place.longitude(), place.kind());
+                }
+            }
+            assertEquals(places.size(), index.size());
+            
+            for (int query = 0; query < 20; query++) {
+                double latitude = random.nextBoolean() ? clamp(clusterLat + random.nextGaussian()) : randomLatitude(random);
+                double longitude = random.nextBoolean() ? wrap(clusterLon + random.nextGaussian()) : randomLongitude(random);
+                double radiusKm = random.nextInt(3) == 0 ? 0 : random.nextDouble() * 3000;
+                int kind = random.nextInt(4);
+                Predicate<Integer> filter = kind == 3 ? null : facets -> facets == kind;
+                int limit = 1 + random.nextInt(12);
+                
+                List<GeoGridIndex.Neighbour> actual = index.nearest(latitude, longitude, radiusKm, filter, limit);
+                List<GeoGridIndex.Neighbour> expected = bruteForce(places, latitude, longitude, radiusKm, filter, limit);
+                
+                String label = "round " + round + ", cell " + cellDegrees + ", query (" + latitude + ", " + longitude
+                    + ") radius " + radiusKm + " kind " + kind + " limit " + limit;
+                assertEquals(expected.size(), actual.size(), label);
+                for (int i = 0; i < expected.size(); i++) {
+                    // Ties may come back in either order, so compare distances rather than ids
+                    assertEquals(expected.get(i).distanceKm(), actual.get(i).distanceKm(), 1e-9, label);
+                    Place place = places.get(actual.get(i).id());
+                    assertEquals(actual.get(i).distanceKm(),
+                        GeoGridIndex.distanceKm(latitude, longitude, place.latitude(), place.longitude()), 1e-9, label);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void findsNeighboursAcrossTheAntimeridianAndThePoles() {
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(1.0);
+        index.put(1L, 10.0, 179.9, 0);
+        index.put(2L, 10.0, 170.0, 0);
+        index.put(3L, 89.9, 0.0, 0);
+        index.put(4L, 89.9, 180.0, 0);
+        
+        List<GeoGridIndex.Neighbour> west = index.nearest(10.0, -179.9, 0, null, 1);
+        assertEquals(1L, west.get(0).id());
+        assertTrue(west.get(0).distanceKm() < 30);
+        
+        List<GeoGridIndex.Neighbour> pole = index.nearest(89.9, 90.0, 100, null, 2);
+        assertEquals(List.of(3L, 4L), pole.stream().map(GeoGridIndex.Neighbour::id).sorted().toList());
+        
+        // The one column half way round the parallel from the query
+        GeoGridIndex<Integer> opposite = new GeoGridIndex<>(1.0);
+        opposite.put(5L, 0.5, -179.5, 0);
+        assertEquals(List.of(new GeoGridIndex.Neighbour(5L, GeoGridIndex.distanceKm(0.5, 0.5, 0.5, -179.5))),
+            opposite.nearest(0.5, 0.5, 0, null, 1));
+    }
+    
+    @Test
+    void rejectsQueriesOffTheGlobe() {
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(1.0);
+        index.put(1L, 10.0, 10.0, 0);
+        
+        double[][] queries = {
+            {90.5, 0, 0}, {-91, 0, 0}, {Double.NaN, 0, 0},
+            {0, 180.5, 0}, {0, -181, 0}, {0, Double.POSITIVE_INFINITY, 0},
+            {0, 0, -1}, {0, 0, Double.NaN}, {0, 0, Double.POSITIVE_INFINITY}
+        };
+        for (double[] query : queries) {
+            assertThrows(IllegalArgumentException.class, () -> index.nearest(query[0], query[1], query[2], null, 1));
+        }
+        assertEquals(1, index.nearest(-90, 180, 0, null, 1).size());
+    }
+    
+    private static List<GeoGridIndex.Neighbour> bruteForce(Map<Long, Place> places, double latitude, double longitude,
+                                                           double radiusKm, Predicate<Integer> filter, int limit) {
+        List<GeoGridIndex.Neighbour> all = new ArrayList<>();
+        places.forEach((id, place) -> {
+            if (filter != null && !filter.test(place.kind())) {
+                return;
+            }
+            double distance = GeoGridIndex.distanceKm(latitude, longitude, place.latitude(), place.longitude());
+            if (radiusKm <= 0 || distance <= radiusKm) {
+                all.add(new GeoGridIndex.Neighbour(id, distance));
+            }
+        });
+        all.sort(Comparator.comparingDouble(GeoGridIndex.Neighbour::distanceKm));
+        return all.subList(0, Math.min(limit, all.size()));
+    }
+    
+    private static double randomLatitude(Random random) {
+        // Weighted towards the poles, where longitude cells are narrowest
+        return random.nextInt(5) == 0 ? (random.nextBoolean() ? 1 : -1) * (85 + random.nextDouble() * 5)
+            : random.nextDouble() * 180 - 90;
+    }
+    
+    private static double randomLongitude(Random random) {
+        return random.nextDouble() * 360 - 180;
+    }
+    
+    private static double clamp(double latitude) {
+        return Math.max(-90, Math.min(90, latitude));
+    }
+    
+    private static double wrap(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+}
\ No newline at end of file
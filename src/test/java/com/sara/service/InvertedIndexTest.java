@@ -0,0 +1,164 @@
+package com.sara.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+    
+    @Test
+    void prefixSearchAgreesWithScanningEveryDocument() {
+        Random random = new Random(20240603L);
+        for (int round = 0; round < 300; round++) {
+            InvertedIndex<Integer> index = new InvertedIndex<>();
+            Map<Long, Map<String, Float>> documents = new HashMap<>();
+            Map<Long, Integer> facets = new HashMap<>();
+            int count = 1 + random.nextInt(60);
+            for (long id = 1; id <= count; id++) {
+                Map<String, Float> terms = randomTerms(random);
+                int facet = random.nextInt(3);
+                documents.put(id, terms);
+                facets.put(id, facet);
+                index.put(id, terms, facet);
+            }
+            // Replaced and removed documents must drop out of their old terms' postings
+            for (int i = 0; i < count / 5; i++) {
+                long id = 1 + random.nextInt(count);
+                if (random.nextBoolean()) {
+                    documents.remove(id);
+                    facets.remove(id);
+                    index.remove(id);
+                } else {
+                    Map<String, Float> terms = randomTerms(random);
+                    int facet = facets.getOrDefault(id, 0);
+                    documents.put(id, terms);
+                    facets.put(id, facet);
+                    index.put(id, terms, facet);
+                }
+            }
+            assertEquals(documents.size(), index.size());
+            
+            for (int query = 0; query < 30; query++) {
+                List<String> tokens = new ArrayList<>();
+                int length = 1 + random.nextInt(2);
+                for (int i = 0; i < length; i++) {
+                    tokens.add(randomWord(random, 1 + random.nextInt(3)));
+                }
+                int kind = random.nextInt(4);
+                int limit = 1 + random.nextInt(count + 5);
+                
+                List<Long> actual = index.search(tokens, kind == 3 ? null : facet -> facet == kind, limit);
+                
+                Map<Long, Double> expected = new HashMap<>();
+                documents.forEach((id, terms) -> {
+                    if (kind == 3 || facets.get(id) == kind) {
+                        Double score = referenceScore(documents, terms, tokens);
+                        if (score != null) {
+                            expected.put(id, score);
+                        }
+                    }
+                });
+                
+                String label = "round " + round + ", tokens " + tokens + ", kind " + kind + ", limit " + limit;
+                assertEquals(Math.min(limit, expected.size()), actual.size(), label);
+                assertEquals(actual.size(), new HashSet<>(actual).size(), label);
+                assertTrue(expected.keySet().containsAll(actual), label);
+                // Highest score first, and nothing left out scores above anything returned
+                for (int i = 1; i < actual.size(); i++) {
+                    assertTrue(expected.get(actual.get(i - 1)) >= expected.get(actual.get(i)) - 1e-4, label);
+                }
+                if (!actual.isEmpty()) {
+                    double lowest = expected.get(actual.get(actual.size() - 1));
+                    for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+                        if (!actual.contains(entry.getKey())) {
+                            assertTrue(entry.getValue() <= lowest + 1e-4, label);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    void exactMatchOutranksPrefixMatch() {
+        InvertedIndex<Void> index = new InvertedIndex<>();
+        index.put(1L, Map.of("waterproof", 1.0f), null);
+        index.put(2L, Map.of("water", 1.0f), null);
+        index.put(3L, Map.of("blanket", 1.0f), null);
+        
+        assertEquals(List.of(2L, 1L), index.search(InvertedIndex.tokenize("Water"), null, 10));
+        assertEquals(List.of(1L), index.search(InvertedIndex.tokenize("waterp"), null, 10));
+        assertEquals(List.of(), index.search(InvertedIndex.tokenize("water blanket"), null, 10));
+    }
+    
+    @Test
+    void filterTokensMatchEveryTermTheyArePrefixesOf() {
+        InvertedIndex<Void> index = new InvertedIndex<>();
+        for (long id = 1; id <= 100; id++) {
+            index.put(id, Map.of("@north" + id, 1.0f, "tent", 1.0f), null);
+        }
+        
+        assertEquals(100, index.search(List.of(), List.of("@north"), null, 200).size());
+        assertEquals(100, index.search(List.of("tent"), List.of("@north"), null, 200).size());
+        // Free-text prefixes stop expanding after the first 64 terms
+        assertEquals(64, index.search(List.of("@north"), null, 200).size());
+    }
+    
+    @Test
+    void tokenizeSplitsOnAnythingButLettersAndDigits() {
+        assertEquals(List.of("first", "aid", "kit", "2", "café"), InvertedIndex.tokenize("First-aid KIT #2, Café"));
+        assertEquals(List.of(), InvertedIndex.tokenize("  -- "));
+    }
+    
+    /**
+     * What search() should score a document: per token, the best of its exact match and
+     * its prefix matches at half weight, each weighted by idf; summed over the tokens.
+     * Null when some token matches none of the document's terms.
+     */
+    private static Double referenceScore(Map<Long, Map<String, Float>> documents, Map<String, Float> terms,
+                                         List<String> tokens) {
+        double total = 0;
+        for (String token : tokens) {
+            double best = -1;
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                if (!term.getKey().startsWith(token)) {
+                    continue;
+                }
+                long frequency = documents.values().stream().filter(d -> d.containsKey(term.getKey())).count();
+                double idf = Math.log(1.0 + (double) documents.size() / frequency);
+                double factor = term.getKey().equals(token) ? 1.0 : 0.5;
+                best = Math.max(best, term.getValue() * idf * factor);
+            }
+            if (best < 0) {
+                return null;
+            }
+            total += best;
+        }
+        return total;
+    }
+    
+    // Words over a three letter alphabet, so prefixes are shared between many terms
+    private static Map<String, Float> randomTerms(Random random) {
+        Map<String, Float> terms = new HashMap<>();
+        int count = 1 + random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            terms.put(randomWord(random, 1 + random.nextInt(4)), 0.5f + random.nextInt(4));
+        }
+        return terms;
+    }
+    
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.sara.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinCostFlowTest {
+    
+    private record Edge(int from, int to, long capacity, long cost) {}
+    
+    @Test
+    void agreesWithBellmanFordOnRandomSmallNetworks() {
+        Random random = new Random(20240601L);
+        for (int round = 0; round < 2000; round++) {
+            int nodes = 2 + random.nextInt(7);
+            List<Edge> network = randomAcyclicNetwork(random, nodes);
+            
+            MinCostFlow solver = new MinCostFlow(nodes);
+            int[] ids = new int[network.size()];
+            for (int i = 0; i < network.size(); i++) {
+                Edge edge = network.get(i);
+                ids[i] = solver.addEdge(edge.from(), edge.to(), edge.capacity(), edge.cost());
+            }
+            MinCostFlow.Result result = solver.solve(0, nodes - 1);
+            long[] expected = referenceSolve(nodes, network, 0, nodes - 1);
+            
+            String label = "network " + round + ": " + network;
+            assertEquals(expected[0], result.flow(), label);
+            assertEquals(expected[1], result.cost(), label);
+            assertFeasible(nodes, network, solver, ids, result, label);
+        }
+    }
+    
+    @Test
+    void stopsAtCheapestFlowRatherThanLargest() {
+        MinCostFlow solver = new MinCostFlow(3);
+        int cheap = solver.addEdge(0, 1, 4, -5);
+        int dear = solver.addEdge(0, 1, 10, 3);
+        solver.addEdge(1, 2, 20, 0);
+        
+        MinCostFlow.Result result = solver.solve(0, 2);
+        
+        assertEquals(4, result.flow());
+        assertEquals(-20, result.cost());
+        assertEquals(4, solver.flow(cheap));
+        assertEquals(0, solver.flow(dear));
+    }
+    
+    // Edges only run from lower to higher nodes, so negative costs cannot form a negative cycle
+    private static List<Edge> randomAcyclicNetwork(Random random, int nodes) {
+        List<Edge> network = new ArrayList<>();
+        int count = random.nextInt(nodes * 3 + 1);
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(nodes - 1);
+            int to = from + 1 + random.nextInt(nodes - 1 - from);
+            network.add(new Edge(from, to, random.nextInt(6), random.nextInt(21) - 10));
+        }
+        return network;
+    }
+    
+    private static void assertFeasible(int nodes, List<Edge> network, MinCostFlow solver, int[] ids,
+                                       MinCostFlow.Result result, String label) {
+        long[] balance = new long[nodes];
+        long cost = 0;
+        for (int i = 0; i < network.size(); i++) {
+            Edge edge = network.get(i);
+            long flow = solver.flow(ids[i]);
+            assertTrue(flow >= 0 && flow <= edge.capacity(), label);
+            balance[edge.from()] -= flow;
+            balance[edge.to()] += flow;
+            cost += flow * edge.cost();
+        }
+        for (int v = 1; v < nodes - 1; v++) {
+            assertEquals(0, balance[v], label);
+        }
+        assertEquals(result.flow(), balance[nodes - 1], label);
+        assertEquals(result.cost(), cost, label);
+    }
+    
+    /**
+     * Successive shortest paths with Bellman-Ford on the residual network, one path at a
+     * time, stopping at the first path that would not lower the cost. Returns {flow, cost}.
+     */
+    private static long[] referenceSolve(int nodes, List<Edge> network, int source, int sink) {
+        int size = network.size() * 2;
+        int[] from = new int[size];
+        int[] to = new int[size];
+        long[] capacity = new long[size];
+        long[] cost = new long[size];
+        for (int i = 0; i < network.size(); i++) {
+            Edge edge = network.get(i);
+            from[2 * i] = edge.from();
+            to[2 * i] = edge.to();
+            capacity[2 * i] = edge.capacity();
+            cost[2 * i] = edge.cost();
+            from[2 * i + 1] = edge.to();
+            to[2 * i + 1] = edge.from();
+            cost[2 * i + 1] = -edge.cost();
+        }
+        
+        long flow = 0;
+        long total = 0;
+        long[] distance = new long[nodes];
+        int[] via = new int[nodes];
+        while (true) {
+            Arrays.fill(distance, Long.MAX_VALUE);
+            Arrays.fill(via, -1);
+            distance[source] = 0;
+            for (int pass = 0; pass < nodes - 1; pass++) {
+                for (int e = 0; e < size; e++) {
+                    if (capacity[e] > 0 && distance[from[e]] != Long.MAX_VALUE
+                            && distance[from[e]] + cost[e] < distance[to[e]]) {
+                        distance[to[e]] = distance[from[e]] + cost[e];
+                        via[to[e]] = e;
+                    }
+                }
+            }
+            if (distance[sink] == Long.MAX_VALUE || distance[sink] >= 0) {
+                return new long[] {flow, total};
+            }
+            long pushed = Long.MAX_VALUE;
+            for (int v = sink; v != source; v = from[via[v]]) {
+                pushed = Math.min(pushed, capacity[via[v]]);
+            }
+            for (int v = sink; v != source; v = from[via[v]]) {
+                capacity[via[v]] -= pushed;
+                capacity[via[v] ^ 1] += pushed;
+            }
+            flow += pushed;
+            total += pushed * distance[sink];
+        }
+    }
+}
\ No newline at end of file
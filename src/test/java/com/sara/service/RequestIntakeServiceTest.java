@@ -0,0 +1,153 @@
+package com.sara.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sara.entity.Request;
+import com.sara.entity.Resource;
+import com.sara.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestIntakeServiceTest {
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final RequestService requestService = mock(RequestService.class);
+    private final UserService userService = mock(UserService.class);
+    
+    @TempDir
+    Path journalDir;
+    
+    @Test
+    void replayQueuesOnlyUnwrittenSubmissionsWithTheirSubmissionTime() throws Exception {
+        when(userService.getReference(anyLong())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+        
+        // One byte segments, so every submission rolls the journal over to a new one
+        RequestIntakeService first = intake(10, 1);
+        first.recover();
+        first.submit(request("Water for 4"), 7L);
+        first.submit(request("Blankets"), 7L);
+        first.submit(request("Insulin"), 8L);
+        // Crash before the writer ran: nothing reached the database
+        first.shutdown();
+        
+        List<Path> segments = segments();
+        assertEquals(4, segments.size());
+        List<RequestIntakeService.Submission> journaled = new ArrayList<>();
+        for (Path segment : segments) {
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                journaled.add(objectMapper.readValue(line, RequestIntakeService.Submission.class));
+            }
+        }
+        assertEquals(3, journaled.size());
+        // A crash mid-append leaves a torn line, which replay has to skip
+        Files.writeString(segments.get(2), "{\"key\":\"torn", StandardOpenOption.APPEND);
+        
+        // The first submission made it in before the crash
+        Set<String> written = Set.of(journaled.get(0).key());
+        when(requestService.findIntakeKeys(any())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(0);
+            return keys.stream().filter(written::contains).collect(Collectors.toSet());
+        });
+        when(requestService.saveRequests(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        LocalDateTime beforeReplay = LocalDateTime.now();
+        RequestIntakeService second = intake(10, 1);
+        second.recover();
+        assertEquals(2, second.getQueuedCount());
+        assertTrue(Files.notExists(segments.get(0)));
+        
+        second.startWriter();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Request>> saved = ArgumentCaptor.forClass(List.class);
+        verify(requestService, timeout(5000)).saveRequests(saved.capture());
+        List<Request> requests = saved.getValue();
+        assertEquals(List.of("Blankets", "Insulin"), requests.stream().map(Request::getTitle).toList());
+        for (int i = 0; i < requests.size(); i++) {
+            RequestIntakeService.Submission submission = journaled.get(i + 1);
+            assertEquals(submission.key(), requests.get(i).getIntakeKey());
+            assertEquals(submission.userId(), requests.get(i).getUser().getId());
+            assertEquals(submission.submittedAt(), requests.get(i).getCreatedAt());
+            assertTrue(requests.get(i).getCreatedAt().isBefore(beforeReplay));
+        }
+        
+        // Every closed segment is written out, leaving only the open one
+        long deadline = System.currentTimeMillis() + 5000;
+        while (segments().size() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(List.of(segmentPath(4)), segments());
+        assertEquals(2, second.getWrittenCount());
+        second.shutdown();
+    }
+    
+    @Test
+    void refusesPastQueueCapacityWithoutJournaling() throws Exception {
+        RequestIntakeService intake = intake(2, 1 << 20);
+        intake.recover();
+        intake.submit(request("Food"), 1L);
+        intake.submit(request("Tents"), 1L);
+        
+        assertThrows(IllegalStateException.class, () -> intake.submit(request("Tools"), 1L));
+        
+        assertEquals(2, intake.getQueuedCount());
+        assertEquals(1, intake.getRefusedCount());
+        assertEquals(2, Files.readAllLines(segmentPath(0), StandardCharsets.UTF_8).size());
+        intake.shutdown();
+    }
+    
+    private RequestIntakeService intake(int queueCapacity, long segmentBytes) {
+        return new RequestIntakeService(requestService, userService, objectMapper, true, journalDir,
+            queueCapacity, 200, segmentBytes, 100);
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.sorted().toList();
+        }
+    }
+    
+    private Path segmentPath(long index) {
+        return journalDir.resolve(String.format("intake-%012d.log", index));
+    }
+    
+    private static Request request(String title) {
+        Request request = new Request();
+        request.setTitle(title);
+        request.setDescription(title + " needed at the school gym");
+        request.setResourceType(Resource.ResourceType.OTHER);
+        request.setQuantityNeeded(1);
+        request.setLocation("School gym");
+        request.setUrgency(Request.UrgencyLevel.HIGH);
+        return request;
+    }
+    
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
\ No newline at end of file